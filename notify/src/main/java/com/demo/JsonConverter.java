@@ -4,6 +4,8 @@ package com.demo;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+
 public class JsonConverter {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
@@ -15,4 +17,8 @@ public class JsonConverter {
     public static <T> T fromJson(String json, Class<T> clazz) throws JsonProcessingException {
         return objectMapper.readValue(json, clazz);
     }
+
+    public static <T> T fromJson(byte[] json, Class<T> clazz) throws IOException {
+        return objectMapper.readValue(json, clazz);
+    }
 }
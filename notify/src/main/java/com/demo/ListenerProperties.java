@@ -0,0 +1,17 @@
+package com.demo;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.listener")
+public record ListenerProperties(
+        @DefaultValue("user-registration") String queue,
+        @DefaultValue("2") int concurrency,
+        @DefaultValue("4") int maxConcurrency,
+        @DefaultValue("250") int prefetch,
+        @DefaultValue("50") int batchSize,
+        @DefaultValue("200ms") Duration receiveTimeout,
+        @DefaultValue("10000") int deduplicationSize
+) { }
@@ -1,28 +1,34 @@
 package com.demo;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
-import org.springframework.amqp.rabbit.listener.adapter.MessageListenerAdapter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitMqConfig {
 
-    public static final String QUEUE_NAME = "user-registration";
-
+    // INFO -> Each consumer takes up to batch-size messages, or what arrived within receive-timeout, and hands them
+    //  to the listener at once. The whole batch is acked with one basic.ack after the listener returns.
     @Bean
-    SimpleMessageListenerContainer container(ConnectionFactory connectionFactory, MessageListenerAdapter listenerAdapter) {
+    SimpleMessageListenerContainer container(
+            ConnectionFactory connectionFactory,
+            UserRegisteredListener listener,
+            ListenerProperties properties
+    ) {
         SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.setMessageListener(listenerAdapter);
-        container.setQueueNames(QUEUE_NAME);
+        container.setQueueNames(properties.queue());
+        container.setConcurrentConsumers(properties.concurrency());
+        container.setMaxConcurrentConsumers(properties.maxConcurrency());
+        container.setPrefetchCount(properties.prefetch());
+        container.setBatchSize(properties.batchSize());
+        container.setConsumerBatchEnabled(true);
+        container.setReceiveTimeout(properties.receiveTimeout().toMillis());
+        container.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        container.setMessageListener(listener);
 
         return container;
     }
-
-    @Bean
-    MessageListenerAdapter listenerAdapter(UserRegisteredListener listener) {
-        return new MessageListenerAdapter(listener, UserRegisteredListener.METHOD_NAME);
-    }
 }
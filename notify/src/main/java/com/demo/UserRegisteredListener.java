@@ -1,23 +1,65 @@
 package com.demo;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @Slf4j
-public class UserRegisteredListener {
-    public static final String METHOD_NAME = "onMessageReceived";
+public class UserRegisteredListener implements BatchMessageListener {
+    private final Map<String, Boolean> handled;
 
-    public void onMessageReceived(String message) throws JsonProcessingException {
-        var payload = JsonConverter.fromJson(message, UserRegistrationPayload.class);
+    // INFO -> The store publishes at least once and names every message after its outbox row, so the ids of the
+    //  most recently handled messages are kept to drop a redelivery instead of sending the email again. Only this
+    //  instance's recent ids are known, which covers redeliveries after a consumer or relay restart.
+    public UserRegisteredListener(ListenerProperties properties) {
+        int size = properties.deduplicationSize();
+        this.handled = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > size;
+            }
+        });
+    }
 
-        log.info("Message received");
-        log.info("Email Address: " + payload.email());
-        log.info("User ID: " + payload.id());
+    // INFO -> Payloads are read straight from the message body. A malformed message is logged and dropped instead of
+    //  failing the batch, which would requeue every message in it.
+    @Override
+    public void onMessageBatch(List<Message> messages) {
+        for (Message message : messages) {
+            String messageId = message.getMessageProperties().getMessageId();
+            UserRegistrationPayload payload;
+            try {
+                payload = JsonConverter.fromJson(message.getBody(), UserRegistrationPayload.class);
+            } catch (IOException ex) {
+                log.warn("Dropping malformed message " + messageId + ": " + ex.getMessage());
+                continue;
+            }
+            if (messageId != null && handled.putIfAbsent(messageId, Boolean.TRUE) != null) {
+                log.info("Dropping duplicate message " + messageId);
+                continue;
+            }
+            try {
+                onUserRegistered(payload);
+            } catch (RuntimeException ex) {
+                if (messageId != null) {
+                    handled.remove(messageId);
+                }
+                throw ex;
+            }
+        }
+    }
 
+    protected void onUserRegistered(UserRegistrationPayload payload) {
         // INFO -> Only for demo purposes. Simulate sending email, but in reality, I will send an email
         // This functionality should be in a separate microservice
-        log.info("Sending email...");
+        log.info("Sending email to " + payload.email() + " for user " + payload.id());
     }
 }
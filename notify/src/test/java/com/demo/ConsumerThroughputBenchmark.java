@@ -0,0 +1,185 @@
+package com.demo;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.adapter.MessageListenerAdapter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// INFO -> Measures how many registration messages per second the notify listener drains from a local broker. The
+//  queue is filled first, so only consumption is timed. The legacy scenario repeats the previous setup: one
+//  consumer, a message at a time, acked one by one and converted to a String before parsing. Logging is turned
+//  down, so the numbers show the container and the parsing rather than the console. The broker is taken from the
+//  RABBITMQ_* variables and defaults to guest@localhost:5672.
+//  Run with: mvn -pl notify test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+//  "-Dexec.args=-cp %classpath com.demo.ConsumerThroughputBenchmark"
+public class ConsumerThroughputBenchmark {
+    private static final String QUEUE = "notify-benchmark";
+    private static final int MESSAGES = 50_000;
+
+    private final CachingConnectionFactory connectionFactory;
+    private final RabbitAdmin admin;
+    private final RabbitTemplate template;
+
+    private ConsumerThroughputBenchmark(CachingConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        this.admin = new RabbitAdmin(connectionFactory);
+        this.template = new RabbitTemplate(connectionFactory);
+    }
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        var connectionFactory = new CachingConnectionFactory(
+                env("RABBITMQ_HOST", "localhost"),
+                Integer.parseInt(env("RABBITMQ_PORT", "5672"))
+        );
+        connectionFactory.setUsername(env("RABBITMQ_USERNAME", "guest"));
+        connectionFactory.setPassword(env("RABBITMQ_PASSWORD", "guest"));
+        connectionFactory.setVirtualHost(env("RABBITMQ_VHOST", "/"));
+        var benchmark = new ConsumerThroughputBenchmark(connectionFactory);
+        try {
+            benchmark.run(List.of(
+                    Scenario.legacy(),
+                    Scenario.batched(1, 250, 1),
+                    Scenario.batched(1, 250, 50),
+                    Scenario.batched(2, 250, 50),
+                    Scenario.batched(4, 250, 50),
+                    Scenario.batched(4, 1000, 200)
+            ));
+        } finally {
+            benchmark.admin.deleteQueue(QUEUE);
+            connectionFactory.destroy();
+        }
+    }
+
+    private void run(List<Scenario> scenarios) throws Exception {
+        admin.declareQueue(new Queue(QUEUE, false));
+        System.out.printf("%-8s %9s %8s %6s %12s%n", "mode", "consumers", "prefetch", "batch", "messages/s");
+        for (Scenario scenario : scenarios) {
+            measure(scenario);
+            double rate = measure(scenario);
+            System.out.printf("%-8s %9d %8d %6d %12.0f%n",
+                    scenario.mode(),
+                    scenario.consumers(),
+                    scenario.prefetch(),
+                    scenario.batchSize(),
+                    rate);
+        }
+    }
+
+    // INFO -> Returns messages per second from starting the container until the last message was handled
+    private double measure(Scenario scenario) throws Exception {
+        fill();
+        var handled = new CountDownLatch(MESSAGES);
+        SimpleMessageListenerContainer container = scenario.isLegacy()
+                ? legacyContainer(handled)
+                : new RabbitMqConfig().container(connectionFactory, new CountingListener(scenario.properties(), handled), scenario.properties());
+        container.afterPropertiesSet();
+        long start = System.nanoTime();
+        container.start();
+        try {
+            if (!handled.await(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Only " + (MESSAGES - handled.getCount()) + " messages handled");
+            }
+            return MESSAGES / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            container.stop();
+        }
+    }
+
+    private void fill() throws JsonProcessingException {
+        admin.purgeQueue(QUEUE, false);
+        var messages = new Message[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            String json = JsonConverter.toJson(new UserRegistrationPayload((long) i, "user" + i + "@mail.com"));
+            messages[i] = MessageBuilder
+                    .withBody(json.getBytes(StandardCharsets.UTF_8))
+                    .setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN)
+                    .setMessageId("outbox-" + i)
+                    .build();
+        }
+        template.invoke(operations -> {
+            for (Message message : messages) {
+                operations.send("", QUEUE, message);
+            }
+            return null;
+        });
+        while (admin.getQueueInfo(QUEUE).getMessageCount() < MESSAGES) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private SimpleMessageListenerContainer legacyContainer(CountDownLatch handled) {
+        var container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(QUEUE);
+        container.setMessageListener(new MessageListenerAdapter(new LegacyListener(handled), "onMessageReceived"));
+        return container;
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+
+    private record Scenario(String mode, int consumers, int prefetch, int batchSize) {
+        static Scenario legacy() {
+            return new Scenario("legacy", 1, 250, 1);
+        }
+
+        static Scenario batched(int consumers, int prefetch, int batchSize) {
+            return new Scenario("batched", consumers, prefetch, batchSize);
+        }
+
+        boolean isLegacy() {
+            return mode.equals("legacy");
+        }
+
+        ListenerProperties properties() {
+            return new ListenerProperties(QUEUE, consumers, consumers, prefetch, batchSize, Duration.ofMillis(200), MESSAGES);
+        }
+    }
+
+    private static final class CountingListener extends UserRegisteredListener {
+        private final CountDownLatch handled;
+
+        private CountingListener(ListenerProperties properties, CountDownLatch handled) {
+            super(properties);
+            this.handled = handled;
+        }
+
+        @Override
+        public void onMessageBatch(List<Message> messages) {
+            super.onMessageBatch(messages);
+            for (int i = 0; i < messages.size(); i++) {
+                handled.countDown();
+            }
+        }
+    }
+
+    public static final class LegacyListener {
+        private final CountDownLatch handled;
+
+        private LegacyListener(CountDownLatch handled) {
+            this.handled = handled;
+        }
+
+        public void onMessageReceived(String message) throws JsonProcessingException {
+            JsonConverter.fromJson(message, UserRegistrationPayload.class);
+            handled.countDown();
+        }
+    }
+}
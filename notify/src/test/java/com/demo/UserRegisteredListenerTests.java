@@ -0,0 +1,109 @@
+package com.demo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserRegisteredListenerTests {
+
+    private List<UserRegistrationPayload> sent;
+    private boolean failing;
+    private UserRegisteredListener listener;
+
+    @BeforeEach
+    void setUp() {
+        sent = new ArrayList<>();
+        failing = false;
+        var properties = new ListenerProperties("user-registration", 1, 1, 10, 10, Duration.ofMillis(200), 2);
+        listener = new UserRegisteredListener(properties) {
+            @Override
+            protected void onUserRegistered(UserRegistrationPayload payload) {
+                if (failing) {
+                    throw new IllegalStateException("mail server down");
+                }
+                sent.add(payload);
+            }
+        };
+    }
+
+    @Test
+    void onMessageBatchShouldDropMalformedMessageAndHandleTheRest() {
+        // Arrange
+        var messages = List.of(
+                message("outbox-1", "{\"id\":1,\"email\":\"first@mail.com\"}"),
+                message("outbox-2", "{\"id\":"),
+                message("outbox-3", "{\"id\":3,\"email\":\"third@mail.com\"}")
+        );
+
+        // Act
+        listener.onMessageBatch(messages);
+
+        // Assert
+        assertThat(sent).containsExactly(
+                new UserRegistrationPayload(1L, "first@mail.com"),
+                new UserRegistrationPayload(3L, "third@mail.com")
+        );
+    }
+
+    @Test
+    void onMessageBatchShouldDropRedeliveredMessages() {
+        // Arrange
+        listener.onMessageBatch(List.of(message("outbox-1", "{\"id\":1,\"email\":\"first@mail.com\"}")));
+
+        // Act
+        listener.onMessageBatch(List.of(
+                message("outbox-1", "{\"id\":1,\"email\":\"first@mail.com\"}"),
+                message("outbox-2", "{\"id\":2,\"email\":\"second@mail.com\"}"),
+                message("outbox-2", "{\"id\":2,\"email\":\"second@mail.com\"}")
+        ));
+
+        // Assert
+        assertThat(sent).extracting(UserRegistrationPayload::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void onMessageBatchShouldHandleMessageAgainWhenItFailedBefore() {
+        // Arrange
+        failing = true;
+        var message = message("outbox-1", "{\"id\":1,\"email\":\"first@mail.com\"}");
+        assertThatThrownBy(() -> listener.onMessageBatch(List.of(message))).isInstanceOf(IllegalStateException.class);
+        failing = false;
+
+        // Act
+        listener.onMessageBatch(List.of(message));
+
+        // Assert
+        assertThat(sent).extracting(UserRegistrationPayload::id).containsExactly(1L);
+    }
+
+    @Test
+    void onMessageBatchShouldOnlyRememberMostRecentMessages() {
+        // Arrange
+        listener.onMessageBatch(List.of(
+                message("outbox-1", "{\"id\":1,\"email\":\"first@mail.com\"}"),
+                message("outbox-2", "{\"id\":2,\"email\":\"second@mail.com\"}"),
+                message("outbox-3", "{\"id\":3,\"email\":\"third@mail.com\"}")
+        ));
+
+        // Act
+        listener.onMessageBatch(List.of(message("outbox-1", "{\"id\":1,\"email\":\"first@mail.com\"}")));
+
+        // Assert
+        assertThat(sent).extracting(UserRegistrationPayload::id).containsExactly(1L, 2L, 3L, 1L);
+    }
+
+    private static Message message(String messageId, String body) {
+        return MessageBuilder.withBody(body.getBytes(StandardCharsets.UTF_8))
+                             .setMessageId(messageId)
+                             .build();
+    }
+}
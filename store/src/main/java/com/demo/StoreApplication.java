@@ -1,28 +1,26 @@
 package com.demo;
 
+import com.demo.catalog.application.CatalogProperties;
 import com.demo.order.application.OrdersProperties;
+import com.demo.shared.messaging.MessagingProperties;
+import com.demo.upload.application.UploadsProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.context.annotation.Bean;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.web.client.RestTemplate;
 
 @EnableAsync
 @EnableScheduling
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @EnableJpaAuditing
 @SpringBootApplication
-@EnableConfigurationProperties({OrdersProperties.class})
+@EnableConfigurationProperties({CatalogProperties.class, OrdersProperties.class, UploadsProperties.class, MessagingProperties.class})
 public class StoreApplication {
     public static void main(String[] args) {
         SpringApplication.run(StoreApplication.class, args);
     }
-
-    @Bean
-    RestTemplate restTemplate() {
-        return new RestTemplateBuilder().build();
-    }
 }
@@ -0,0 +1,46 @@
+package com.demo.catalog.application;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogCache {
+    public static final String BOOKS = "catalog-books";
+    public static final String BOOK = "catalog-book";
+
+    private final CacheManager cacheManager;
+
+    // INFO -> Inside a transaction the eviction waits for the commit, otherwise a concurrent read could
+    // put the old state back into the cache before the change is visible
+    public void evictBooks(Collection<Long> bookIds) {
+        var ids = List.copyOf(bookIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+            return;
+        }
+        evict(ids);
+    }
+
+    private void evict(Collection<Long> bookIds) {
+        cache(BOOKS).ifPresent(Cache::clear);
+        cache(BOOK).ifPresent(cache -> bookIds.forEach(cache::evict));
+    }
+
+    private Optional<Cache> cache(String name) {
+        return Optional.ofNullable(cacheManager.getCache(name));
+    }
+}
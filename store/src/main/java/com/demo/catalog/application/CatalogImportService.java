@@ -0,0 +1,354 @@
+package com.demo.catalog.application;
+
+import com.demo.catalog.domain.ImportJob;
+import com.demo.catalog.domain.ImportJobStatus;
+import com.demo.catalog.infrastructure.CatalogImportRepository;
+import com.demo.catalog.infrastructure.CatalogImportRepository.NewBook;
+import com.demo.catalog.infrastructure.CatalogImportRepository.PendingCover;
+import com.demo.catalog.infrastructure.CatalogImportRepository.Progress;
+import com.demo.catalog.infrastructure.CatalogImportRepository.Reject;
+import com.demo.catalog.infrastructure.ImportJobRepository;
+import com.demo.catalog.infrastructure.ThumbnailFetcher;
+import com.demo.catalog.infrastructure.ThumbnailFetcher.Thumbnail;
+import com.demo.shared.clock.Clock;
+import com.demo.upload.application.SaveUploadCommand;
+import com.demo.upload.application.UploadService;
+import com.demo.upload.domain.Upload;
+import com.opencsv.CSVReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+// INFO -> Rows are streamed from the file and written in chunks while covers of books already written are fetched
+//  in parallel. Each chunk commits its books, their pending covers, its rejected rows and the job progress together,
+//  so a job restarted after a crash skips exactly the rows it has accounted for and fetches the covers it still owes.
+//  Only a bounded number of covers wait for a fetcher, so a slow image host slows down parsing instead of piling up
+//  rows in memory.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogImportService {
+    private static final long AVAILABLE = 50L;
+    private static final int MAX_TITLE_LENGTH = 50;
+    private static final int MAX_AUTHOR_LENGTH = 100;
+    private static final int MAX_PRICE_DIGITS = 8;
+
+    private final CatalogImportRepository repository;
+    private final ImportJobRepository jobRepository;
+    private final UploadService upload;
+    private final ThumbnailFetcher thumbnailFetcher;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogCache catalogCache;
+    private final CatalogProperties properties;
+    private final Clock clock;
+
+    @Async
+    @CacheEvict(cacheNames = CatalogCache.BOOKS, allEntries = true)
+    public void run(Long jobId) {
+        ImportJob job = jobRepository.findById(jobId).orElseThrow();
+        if (job.getStatus() != ImportJobStatus.RUNNING) {
+            return;
+        }
+        Path csvFile = Path.of(job.getFile());
+        var covers = new CoverFetches(properties.importing().coverConcurrency());
+        Exception failure = null;
+        try {
+            repository.findPendingCovers(jobId).forEach(cover -> covers.submit(() -> fetchCover(jobId, cover)));
+            importRows(job, csvFile, covers);
+        } catch (Exception ex) {
+            failure = ex;
+        } finally {
+            covers.await();
+        }
+        if (failure == null && !repository.findPendingCovers(jobId).isEmpty()) {
+            log.warn("Catalog import " + jobId + " still has pending covers, they are fetched when the job resumes");
+            return;
+        }
+        if (failure == null) {
+            finish(jobId, ImportJob::complete);
+            log.info("Catalog import " + jobId + " completed");
+        } else {
+            log.error("Catalog import " + jobId + " failed", failure);
+            String error = StringUtils.defaultIfBlank(failure.getMessage(), failure.toString());
+            finish(jobId, (failed, now) -> failed.fail(error, now));
+        }
+        deleteQuietly(csvFile);
+    }
+
+    private void importRows(ImportJob job, Path csvFile, CoverFetches covers) throws Exception {
+        int chunkSize = properties.importing().chunkSize();
+        var authors = new HashMap<String, Long>();
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(csvFile))) {
+            ImportColumns columns = ImportColumns.of(reader.readNext());
+            long number = 0;
+            while (number < job.getCommittedOffset() && reader.readNext() != null) {
+                number++;
+            }
+            var chunk = new ArrayList<Row>(chunkSize);
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                chunk.add(parse(++number, record, columns));
+                if (chunk.size() == chunkSize) {
+                    importChunk(job.getId(), chunk, authors, covers);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job.getId(), chunk, authors, covers);
+            }
+        }
+    }
+
+    private Row parse(long number, String[] record, ImportColumns columns) {
+        String title = columns.get(record, ImportColumns.TITLE);
+        List<String> authors = authorNames(columns.get(record, ImportColumns.AUTHORS));
+        String year = columns.get(record, ImportColumns.YEAR);
+        String amount = columns.get(record, ImportColumns.AMOUNT);
+        String thumbnail = columns.get(record, ImportColumns.THUMBNAIL);
+        if (title == null || authors.isEmpty() || year == null || amount == null || thumbnail == null) {
+            return Row.skipped(number, record, "Missing required value");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            return Row.failed(number, record, "Title longer than " + MAX_TITLE_LENGTH + " characters");
+        }
+        if (authors.stream().anyMatch(name -> name.length() > MAX_AUTHOR_LENGTH)) {
+            return Row.failed(number, record, "Author name longer than " + MAX_AUTHOR_LENGTH + " characters");
+        }
+        int parsedYear;
+        BigDecimal price;
+        try {
+            parsedYear = Integer.parseInt(year);
+            price = new BigDecimal(amount);
+        } catch (NumberFormatException ex) {
+            return Row.failed(number, record, "Invalid year or amount");
+        }
+        if (price.signum() < 0 || price.precision() - price.scale() > MAX_PRICE_DIGITS) {
+            return Row.failed(number, record, "Invalid amount");
+        }
+        return new Row(number, record, new NewBook(title, parsedYear, price, AVAILABLE), authors, thumbnail, null, false);
+    }
+
+    private List<String> authorNames(String authors) {
+        if (authors == null) {
+            return List.of();
+        }
+        return Arrays.stream(authors.split(","))
+                     .filter(StringUtils::isNotBlank)
+                     .map(StringUtils::normalizeSpace)
+                     .toList();
+    }
+
+    // INFO -> When a chunk is rejected by the database it is retried row by row, so only the offending rows fail
+    private void importChunk(long jobId, List<Row> rows, Map<String, Long> authors, CoverFetches covers) {
+        try {
+            write(jobId, rows, authors, covers);
+        } catch (DataAccessException chunkFailure) {
+            for (Row row : rows) {
+                try {
+                    write(jobId, List.of(row), authors, covers);
+                } catch (DataAccessException ex) {
+                    write(jobId, List.of(row.fail(ex.getMostSpecificCause().getMessage())), authors, covers);
+                }
+            }
+        }
+    }
+
+    private void write(long jobId, List<Row> rows, Map<String, Long> authors, CoverFetches covers) {
+        var books = rows.stream().filter(Row::valid).toList();
+        var chunkAuthors = new HashMap<String, Long>();
+        List<Long> bookIds = transactionTemplate.execute(status -> {
+            chunkAuthors.putAll(resolveAuthors(books, authors));
+            List<Long> ids = books.isEmpty() ? List.of() : repository.insertBooks(books.stream().map(Row::book).toList());
+            var linkedBooks = new ArrayList<Long>();
+            var linkedAuthors = new ArrayList<Long>();
+            for (int i = 0; i < books.size(); i++) {
+                for (String name : books.get(i).authors()) {
+                    linkedBooks.add(ids.get(i));
+                    linkedAuthors.add(chunkAuthors.get(authorKey(name)));
+                }
+            }
+            if (!linkedBooks.isEmpty()) {
+                repository.linkAuthors(linkedBooks, linkedAuthors);
+            }
+            if (!books.isEmpty()) {
+                repository.insertCovers(jobId, ids, books.stream().map(Row::thumbnail).toList());
+            }
+            var rejects = rows.stream()
+                              .filter(row -> !row.valid())
+                              .map(row -> new Reject(row.number(), StringUtils.abbreviate(row.reason(), 255), row.record()))
+                              .toList();
+            if (!rejects.isEmpty()) {
+                repository.insertRejects(jobId, rejects);
+            }
+            long skipped = rows.stream().filter(Row::skipped).count();
+            var progress = new Progress(
+                    rows.size(),
+                    books.size(),
+                    skipped,
+                    rejects.size() - skipped,
+                    rows.get(rows.size() - 1).number()
+            );
+            repository.recordProgress(jobId, progress, clock.now());
+            return ids;
+        });
+        authors.putAll(chunkAuthors);
+        for (int i = 0; i < books.size(); i++) {
+            var cover = new PendingCover(bookIds.get(i), books.get(i).thumbnail());
+            covers.submit(() -> fetchCover(jobId, cover));
+        }
+    }
+
+    // INFO -> Names already seen during this import are not looked up again, the rest of the chunk takes one query
+    //  to find existing authors and one upsert for the missing ones. Ids are only cached once the chunk commits.
+    private Map<String, Long> resolveAuthors(List<Row> books, Map<String, Long> known) {
+        var resolved = new HashMap<String, Long>();
+        var missing = new LinkedHashMap<String, String>();
+        books.forEach(row -> row.authors().forEach(name -> missing.putIfAbsent(authorKey(name), name)));
+        missing.keySet().removeIf(key -> {
+            Long id = known.get(key);
+            if (id != null) {
+                resolved.put(key, id);
+            }
+            return id != null;
+        });
+        if (!missing.isEmpty()) {
+            resolved.putAll(repository.findAuthorIds(missing.keySet()));
+            missing.keySet().removeAll(resolved.keySet());
+        }
+        if (!missing.isEmpty()) {
+            resolved.putAll(repository.insertAuthors(missing.values()));
+            missing.keySet().removeAll(resolved.keySet());
+        }
+        if (!missing.isEmpty()) {
+            resolved.putAll(repository.findAuthorIds(missing.keySet()));
+        }
+        return resolved;
+    }
+
+    private static String authorKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    // INFO -> A cover is no longer pending once it is stored or has failed, if even that cannot be recorded the
+    //  job keeps it and fetches it again when it resumes
+    private void fetchCover(long jobId, PendingCover pending) {
+        long bookId = pending.bookId();
+        try {
+            Thumbnail thumbnail = thumbnailFetcher.fetch(pending.url());
+            transactionTemplate.executeWithoutResult(status -> {
+                Upload cover = upload.save(new SaveUploadCommand(
+                        "cover",
+                        new ByteArrayInputStream(thumbnail.content()),
+                        thumbnail.contentType()
+                ));
+                repository.updateCover(bookId, cover.getId());
+                repository.recordCoverStored(jobId, bookId, clock.now());
+                catalogCache.evictBooks(List.of(bookId));
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Unable to store cover of book " + bookId + ": " + ex.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(status -> repository.recordCoverFailed(jobId, bookId, clock.now()));
+            } catch (DataAccessException recordFailure) {
+                log.warn("Unable to record failed cover of book " + bookId + ": " + recordFailure.getMessage());
+            }
+        }
+    }
+
+    private void finish(long jobId, BiConsumer<ImportJob, LocalDateTime> completion) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jobRepository.findById(jobId).ifPresent(job -> completion.accept(job, clock.now()));
+            repository.deleteCovers(jobId);
+        });
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Unable to delete " + file, ex);
+        }
+    }
+
+    private record Row(
+            long number,
+            String[] record,
+            NewBook book,
+            List<String> authors,
+            String thumbnail,
+            String reason,
+            boolean skipped
+    ) {
+        static Row skipped(long number, String[] record, String reason) {
+            return new Row(number, record, null, List.of(), null, reason, true);
+        }
+
+        static Row failed(long number, String[] record, String reason) {
+            return new Row(number, record, null, List.of(), null, reason, false);
+        }
+
+        boolean valid() {
+            return reason == null;
+        }
+
+        Row fail(String reason) {
+            return failed(number, record, StringUtils.defaultIfBlank(reason, "Rejected by database"));
+        }
+    }
+
+    private static final class CoverFetches {
+        private final ExecutorService executor;
+        private final Semaphore pending;
+
+        private CoverFetches(int concurrency) {
+            this.executor = Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("catalog-cover-"));
+            this.pending = new Semaphore(concurrency * 4);
+        }
+
+        private void submit(Runnable fetch) {
+            pending.acquireUninterruptibly();
+            executor.execute(() -> {
+                try {
+                    fetch.run();
+                } finally {
+                    pending.release();
+                }
+            });
+        }
+
+        private void await() {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.demo.catalog.application;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("app.catalog")
+public record CatalogProperties(
+        @DefaultValue Import importing,
+        @DefaultValue Thumbnails thumbnails
+) {
+    public record Import(
+            @DefaultValue("data/imports") Path directory,
+            @DefaultValue("1000") int chunkSize,
+            @DefaultValue("8") int coverConcurrency
+    ) { }
+
+    public record Thumbnails(
+            @DefaultValue("2s") Duration connectTimeout,
+            @DefaultValue("10s") Duration timeout,
+            @DefaultValue("5MB") DataSize maxSize,
+            @DefaultValue("4") int maxPerHost,
+            @DefaultValue("2") int retries,
+            @DefaultValue("200ms") Duration backoff
+    ) { }
+}
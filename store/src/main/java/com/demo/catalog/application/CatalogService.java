@@ -4,7 +4,6 @@ import com.demo.catalog.application.commands.CreateBookCommand;
 import com.demo.catalog.application.commands.UpdateBookCommand;
 import com.demo.catalog.application.commands.UpdateBookCoverCommand;
 import com.demo.catalog.application.exceptions.AuthorNotFoundException;
-import com.demo.catalog.application.exceptions.ParseCsvException;
 import com.demo.catalog.application.responses.CatalogDto;
 import com.demo.catalog.application.responses.UpdateBookResponse;
 import com.demo.catalog.domain.Author;
@@ -12,35 +11,23 @@ import com.demo.catalog.domain.Book;
 import com.demo.catalog.infrastructure.AuthorRepository;
 import com.demo.catalog.infrastructure.BookRepository;
 import com.demo.catalog.web.BookRequestParams;
+import com.demo.shared.web.CursorPage;
 import com.demo.shared.money.Money;
 import com.demo.upload.application.SaveUploadCommand;
 import com.demo.upload.application.UploadService;
 import com.demo.upload.domain.Upload;
-import com.opencsv.bean.CsvBindByName;
-import com.opencsv.bean.CsvToBean;
-import com.opencsv.bean.CsvToBeanBuilder;
 import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -51,19 +38,21 @@ public class CatalogService {
 
     private final BookRepository repository;
     private final AuthorRepository authorRepository;
-    private final RestTemplate restTemplate;
     private final UploadService upload;
 
+    @Cacheable(
+            cacheNames = CatalogCache.BOOKS,
+            key = "{#p0.title, #p0.author, #p0.page, #p0.pageSize}"
+    )
     public Page<CatalogDto> findAll(BookRequestParams options) {
-        var pageable = getPageable(options);
         if (options.getTitle().isPresent() && options.getAuthor().isPresent()) {
-            return findByTitleAndAuthor(pageable, options.getTitle().get(), options.getAuthor().get());
+            return findByTitleAndAuthor(getSearchPageable(options), options.getTitle().get(), options.getAuthor().get());
         } else if (options.getTitle().isPresent()) {
-            return findByTitle(pageable, options.getTitle().get());
+            return findByTitle(getSearchPageable(options), options.getTitle().get());
         } else if (options.getAuthor().isPresent()) {
-            return findByAuthor(pageable, options.getAuthor().get());
+            return findByAuthor(getSearchPageable(options), options.getAuthor().get());
         }
-        return repository.findAllPage(pageable);
+        return repository.findAllPage(getPageable(options));
     }
 
     private Pageable getPageable(BookRequestParams options) {
@@ -75,22 +64,43 @@ public class CatalogService {
         );
     }
 
+    // INFO -> Search results are ordered by relevance inside the query, so the page must stay unsorted
+    private Pageable getSearchPageable(BookRequestParams options) {
+        return PageRequest.of(
+                options.getPage().get() - 1,
+                options.getPageSize().get()
+        );
+    }
+
+    public CursorPage<CatalogDto> findAllAfter(BookRequestParams options, long after) {
+        int size = options.getPageSize().get();
+        var rows = repository.findAllAfter(
+                after,
+                options.getTitle().orElse(null),
+                options.getAuthor().orElse(null),
+                size + 1
+        );
+        return CursorPage.of(rows, size, CatalogDto::getId);
+    }
+
+    @Cacheable(cacheNames = CatalogCache.BOOK, key = "#p0", unless = "#result == null")
     public Optional<Book> findById(Long id) {
-        return repository.findById(id);
+        return repository.findWithAuthorsById(id);
     }
 
     public Page<CatalogDto> findByTitle(Pageable pageable, String title) {
-        return repository.findByTitleStartsWithIgnoreCase(pageable, title);
+        return repository.searchByTitle(pageable, title);
     }
 
     public Page<CatalogDto> findByAuthor(Pageable pageable, String author) {
-        return repository.findByAuthor(pageable, author);
+        return repository.searchByAuthor(pageable, author);
     }
 
     public Page<CatalogDto> findByTitleAndAuthor(Pageable pageable, String title, String author) {
-        return repository.findByTitleAndAuthor(pageable, title, author);
+        return repository.searchByTitleAndAuthor(pageable, title, author);
     }
 
+    @CacheEvict(cacheNames = CatalogCache.BOOKS, allEntries = true)
     public Book addBook(CreateBookCommand command) {
         Book book = toBook(command);
         return repository.save(book);
@@ -119,6 +129,10 @@ public class CatalogService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CatalogCache.BOOKS, allEntries = true),
+            @CacheEvict(cacheNames = CatalogCache.BOOK, key = "#p0.id()")
+    })
     public UpdateBookResponse updateBook(UpdateBookCommand command) {
         return repository
                 .findById(command.id())
@@ -146,10 +160,18 @@ public class CatalogService {
 
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CatalogCache.BOOKS, allEntries = true),
+            @CacheEvict(cacheNames = CatalogCache.BOOK, key = "#p0")
+    })
     public void removeById(Long id) {
         repository.deleteById(id);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CatalogCache.BOOKS, allEntries = true),
+            @CacheEvict(cacheNames = CatalogCache.BOOK, key = "#p0.id()")
+    })
     public void updateBookCover(UpdateBookCoverCommand command) {
         repository.findById(command.id())
                   .ifPresent(book -> {
@@ -161,6 +183,10 @@ public class CatalogService {
                   });
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CatalogCache.BOOKS, allEntries = true),
+            @CacheEvict(cacheNames = CatalogCache.BOOK, key = "#p0")
+    })
     public void removeBookCover(Long id) {
         repository.findById(id)
                   .ifPresent(book -> {
@@ -171,71 +197,4 @@ public class CatalogService {
                       }
                   });
     }
-
-    @Async
-    @Transactional
-    public void addFromCsv(byte[] csvFile) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(csvFile)))) {
-            CsvToBean<CsvBook> build = new CsvToBeanBuilder<CsvBook>(reader)
-                    .withType(CsvBook.class)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .build();
-            build.stream()
-                 .filter(csvBook -> StringUtils.isNotBlank(csvBook.title) &&
-                                    StringUtils.isNotBlank(csvBook.authors) &&
-                                    csvBook.year != null &&
-                                    csvBook.amount != null &&
-                                    StringUtils.isNotBlank(csvBook.thumbnail))
-                 .forEach(this::initBook);
-        } catch (Exception exception) {
-            throw new ParseCsvException();
-        }
-    }
-
-    private void initBook(CsvBook csvBook) {
-        Set<Long> authors = Arrays
-                .stream(csvBook.authors.split(","))
-                .filter(StringUtils::isNotBlank)
-                .map(String::trim)
-                .map(this::getOrCreateAuthor)
-                .map(Author::getId)
-                .collect(Collectors.toSet());
-        CreateBookCommand command = new CreateBookCommand(
-                csvBook.title,
-                authors,
-                csvBook.year,
-                csvBook.amount,
-                50L
-        );
-        Book book = addBook(command);
-        updateBookCover(updateBookCoverCommand(book.getId(), csvBook.thumbnail));
-    }
-
-    private Author getOrCreateAuthor(String name) {
-        return authorRepository
-                .findByNameIgnoreCase(name)
-                .orElseGet(() -> authorRepository.save(new Author(name)));
-    }
-
-    private UpdateBookCoverCommand updateBookCoverCommand(Long bookId, String thumbnailUrl) {
-        ResponseEntity<byte[]> response = restTemplate.exchange(thumbnailUrl, HttpMethod.GET, null, byte[].class);
-        String contentType = Objects.requireNonNull(response.getHeaders().getContentType()).toString();
-        return new UpdateBookCoverCommand(bookId, response.getBody(), contentType, "cover");
-    }
-
-    @Data
-    @AllArgsConstructor
-    @NoArgsConstructor
-    public static class CsvBook {
-        @CsvBindByName
-        private String title;
-        @CsvBindByName
-        private String authors;
-        @CsvBindByName
-        private Integer year;
-        @CsvBindByName
-        private BigDecimal amount;
-        @CsvBindByName
-        private String thumbnail;
-    }
-}
\ No newline at end of file
+}
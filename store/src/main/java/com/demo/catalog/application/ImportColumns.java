@@ -0,0 +1,39 @@
+package com.demo.catalog.application;
+
+import com.demo.catalog.application.exceptions.ParseCsvException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// INFO -> Columns are matched by name ignoring case and surrounding whitespace, extra columns are ignored
+record ImportColumns(Map<String, Integer> indexes) {
+    static final String TITLE = "title";
+    static final String AUTHORS = "authors";
+    static final String YEAR = "year";
+    static final String AMOUNT = "amount";
+    static final String THUMBNAIL = "thumbnail";
+    static final List<String> REQUIRED = List.of(TITLE, AUTHORS, YEAR, AMOUNT, THUMBNAIL);
+
+    static ImportColumns of(String[] header) {
+        if (header == null) {
+            throw new ParseCsvException("CSV file is empty");
+        }
+        var indexes = new HashMap<String, Integer>();
+        for (int i = header.length - 1; i >= 0; i--) {
+            indexes.put(StringUtils.strip(header[i], " \t\uFEFF").toLowerCase(Locale.ROOT), i);
+        }
+        var missing = REQUIRED.stream().filter(column -> !indexes.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new ParseCsvException("CSV file is missing columns: " + String.join(", ", missing));
+        }
+        return new ImportColumns(indexes);
+    }
+
+    String get(String[] record, String column) {
+        int index = indexes.get(column);
+        return index < record.length ? StringUtils.trimToNull(record[index]) : null;
+    }
+}
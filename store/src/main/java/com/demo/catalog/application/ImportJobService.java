@@ -0,0 +1,97 @@
+package com.demo.catalog.application;
+
+import com.demo.catalog.application.exceptions.ParseCsvException;
+import com.demo.catalog.application.responses.ImportJobResponse;
+import com.demo.catalog.domain.ImportJob;
+import com.demo.catalog.infrastructure.CatalogImportRepository;
+import com.demo.catalog.infrastructure.ImportJobRepository;
+import com.demo.shared.clock.Clock;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class ImportJobService {
+    private final ImportJobRepository repository;
+    private final CatalogImportRepository importRepository;
+    private final CatalogImportService catalogImport;
+    private final CatalogProperties properties;
+    private final Clock clock;
+
+    // INFO -> The file is kept in the imports directory until the job finishes, so an interrupted job can resume
+    public ImportJob submit(Path csvFile, String filename) throws IOException {
+        String[] header = readHeader(csvFile);
+        ImportColumns.of(header);
+        Path directory = properties.importing().directory().toAbsolutePath();
+        Files.createDirectories(directory);
+        Path file = Files.move(csvFile, directory.resolve(UUID.randomUUID() + ".csv"), StandardCopyOption.REPLACE_EXISTING);
+        ImportJob job = repository.save(new ImportJob(filename, file.toString(), header, clock.now()));
+        catalogImport.run(job.getId());
+        return job;
+    }
+
+    public Optional<ImportJobResponse> findById(Long id) {
+        return repository.findById(id).map(job -> ImportJobResponse.of(job, clock.now()));
+    }
+
+    // INFO -> Rejected rows are written with the columns of the original file followed by their row number and
+    //  the reason, so the file can be fixed and imported again as it is
+    @Transactional(readOnly = true)
+    public void writeRejects(Long id, OutputStream out) {
+        ImportJob job = repository.findById(id).orElseThrow();
+        var writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        String[] header = Arrays.copyOf(job.getHeader(), job.getHeader().length + 2);
+        header[header.length - 2] = "row";
+        header[header.length - 1] = "error";
+        writer.writeNext(header, false);
+        importRepository.findRejects(id, reject -> {
+            String[] record = Arrays.copyOf(reject.record(), header.length);
+            record[header.length - 2] = String.valueOf(reject.rowNumber());
+            record[header.length - 1] = reject.reason();
+            writer.writeNext(record, false);
+        });
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // INFO -> Jobs still running belonged to an instance that stopped, assuming a single application instance
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        repository.findRunningIds().forEach(id -> {
+            log.info("Resuming catalog import " + id);
+            catalogImport.run(id);
+        });
+    }
+
+    private String[] readHeader(Path csvFile) throws IOException {
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(csvFile))) {
+            return reader.readNext();
+        } catch (CsvValidationException | CharacterCodingException ex) {
+            throw new ParseCsvException();
+        }
+    }
+}
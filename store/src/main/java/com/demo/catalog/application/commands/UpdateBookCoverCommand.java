@@ -1,8 +1,10 @@
 package com.demo.catalog.application.commands;
 
+import java.io.InputStream;
+
 public record UpdateBookCoverCommand(
         Long id,
-        byte[] file,
+        InputStream file,
         String contentType,
         String filename
 ) {
@@ -4,4 +4,8 @@ public class ParseCsvException extends RuntimeException {
     public ParseCsvException() {
         super("Failed to parse CSV file");
     }
+
+    public ParseCsvException(String message) {
+        super(message);
+    }
 }
@@ -0,0 +1,7 @@
+package com.demo.catalog.application.exceptions;
+
+public class ThumbnailFetchException extends RuntimeException {
+    public ThumbnailFetchException(String url, String reason) {
+        super("Unable to fetch thumbnail " + url + ": " + reason);
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.catalog.application.responses;
+
+import com.demo.catalog.domain.ImportJob;
+import com.demo.catalog.domain.ImportJobStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public record ImportJobResponse(
+        Long id,
+        String filename,
+        ImportJobStatus status,
+        long rowsParsed,
+        long rowsInserted,
+        long rowsSkipped,
+        long rowsFailed,
+        long coversStored,
+        long coversFailed,
+        double rowsPerSecond,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error
+) {
+    public static ImportJobResponse of(ImportJob job, LocalDateTime now) {
+        long millis = Duration.between(job.getStartedAt(), Objects.requireNonNullElse(job.getFinishedAt(), now)).toMillis();
+        return new ImportJobResponse(
+                job.getId(),
+                job.getFilename(),
+                job.getStatus(),
+                job.getRowsParsed(),
+                job.getRowsInserted(),
+                job.getRowsSkipped(),
+                job.getRowsFailed(),
+                job.getCoversStored(),
+                job.getCoversFailed(),
+                job.getRowsParsed() * 1000.0 / Math.max(millis, 1),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getError()
+        );
+    }
+}
@@ -0,0 +1,91 @@
+package com.demo.catalog.domain;
+
+import com.demo.shared.jpa.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+// INFO -> Counters and the committed offset are advanced with plain SQL in the same transaction as each chunk of
+//  imported rows or each cover, so after a crash the job resumes right after the last row it has accounted for
+@Entity
+@Table(name = "catalog_import_jobs")
+@Getter
+@NoArgsConstructor
+public class ImportJob extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImportJobStatus status = ImportJobStatus.RUNNING;
+
+    private String filename;
+
+    @Column(nullable = false, updatable = false)
+    private String file;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false, updatable = false)
+    private String[] header;
+
+    @Column(nullable = false, updatable = false, insertable = false)
+    private long rowsParsed;
+
+    @Column(nullable = false, updatable = false, insertable = false)
+    private long rowsInserted;
+
+    @Column(nullable = false, updatable = false, insertable = false)
+    private long rowsSkipped;
+
+    @Column(nullable = false, updatable = false, insertable = false)
+    private long rowsFailed;
+
+    @Column(nullable = false, updatable = false, insertable = false)
+    private long committedOffset;
+
+    @Column(nullable = false, updatable = false, insertable = false)
+    private long coversStored;
+
+    @Column(nullable = false, updatable = false, insertable = false)
+    private long coversFailed;
+
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+
+    public ImportJob(String filename, String file, String[] header, LocalDateTime startedAt) {
+        this.filename = filename;
+        this.file = file;
+        this.header = header;
+        this.startedAt = startedAt;
+        this.updatedAt = startedAt;
+    }
+
+    public void complete(LocalDateTime now) {
+        finish(ImportJobStatus.COMPLETED, now);
+    }
+
+    public void fail(String error, LocalDateTime now) {
+        this.error = StringUtils.abbreviate(error, 255);
+        finish(ImportJobStatus.FAILED, now);
+    }
+
+    private void finish(ImportJobStatus status, LocalDateTime now) {
+        this.status = status;
+        this.updatedAt = now;
+        this.finishedAt = now;
+    }
+}
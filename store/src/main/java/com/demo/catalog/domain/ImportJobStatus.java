@@ -0,0 +1,7 @@
+package com.demo.catalog.domain;
+
+public enum ImportJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
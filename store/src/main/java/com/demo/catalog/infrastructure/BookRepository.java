@@ -4,11 +4,18 @@ import com.demo.catalog.application.responses.CatalogDto;
 import com.demo.catalog.domain.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface BookRepository extends JpaRepository<Book, Long> {
+    @EntityGraph(attributePaths = "authors")
+    Optional<Book> findWithAuthorsById(Long id);
+
     @Query(
             countQuery = """
                     SELECT count(id)
@@ -25,11 +32,42 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     )
     Page<CatalogDto> findAllPage(Pageable pageable);
 
+    @Query(
+            value = """
+                    SELECT b.id, b.title, b.available, b.price, b.year, b.cover_id as coverId, array_agg(a.name) authors
+                    FROM books b
+                    INNER JOIN books_authors ba ON b.id = ba.books_id
+                    LEFT JOIN authors a ON ba.authors_id = a.id
+                    WHERE b.id > :after
+                        AND (cast(:title AS text) IS NULL
+                             OR lower(b.title) LIKE lower(concat('%', cast(:title AS text), '%')))
+                        AND (cast(:author AS text) IS NULL OR EXISTS (
+                            SELECT 1
+                            FROM books_authors sba
+                            INNER JOIN authors sa ON sba.authors_id = sa.id
+                            WHERE sba.books_id = b.id
+                                AND lower(sa.name) LIKE lower(concat('%', cast(:author AS text), '%'))
+                        ))
+                    GROUP BY b.id
+                    ORDER BY b.id
+                    LIMIT :limit
+                    """,
+            nativeQuery = true
+    )
+    List<CatalogDto> findAllAfter(
+            @Param("after") long after,
+            @Param("title") String title,
+            @Param("author") String author,
+            @Param("limit") int limit
+    );
+
+    // INFO -> The page only lists books that have authors, so the count skips books without any
     @Query(
             countQuery = """
                     SELECT count(b.id)
                     FROM books b
                     WHERE lower(b.title) LIKE lower(concat('%', :title, '%'))
+                        AND EXISTS (SELECT 1 FROM books_authors sba WHERE sba.books_id = b.id)
                     """,
             value = """
                     SELECT b.id, b.title, b.available, b.price, b.year, b.cover_id as coverId, array_agg(a.name) authors
@@ -38,50 +76,69 @@ public interface BookRepository extends JpaRepository<Book, Long> {
                     LEFT JOIN authors a ON ba.authors_id = a.id
                     WHERE lower(b.title) LIKE lower(concat('%', :title, '%'))
                     GROUP BY b.id
+                    ORDER BY similarity(lower(b.title), lower(:title)) DESC, b.id
                     """,
             nativeQuery = true
     )
-    Page<CatalogDto> findByTitleStartsWithIgnoreCase(Pageable pageable, String title);
+    Page<CatalogDto> searchByTitle(Pageable pageable, @Param("title") String title);
 
     @Query(
             countQuery = """
                     SELECT count(b.id)
                     FROM books b
-                    LEFT JOIN books_authors ba ON b.id = ba.books_id
-                    LEFT JOIN authors a ON ba.authors_id = a.id
-                    WHERE lower(a.name) LIKE lower(concat('%', :author, '%'))
+                    WHERE EXISTS (
+                        SELECT 1
+                        FROM books_authors sba
+                        INNER JOIN authors sa ON sba.authors_id = sa.id
+                        WHERE sba.books_id = b.id AND lower(sa.name) LIKE lower(concat('%', :author, '%'))
+                    )
                     """,
             value = """
                     SELECT b.id, b.title, b.available, b.price, b.year, b.cover_id as coverId, array_agg(a.name) authors
                     FROM books b
                     INNER JOIN books_authors ba ON b.id = ba.books_id
                     LEFT JOIN authors a ON ba.authors_id = a.id
-                    WHERE lower(a.name) LIKE lower(concat('%', :author, '%'))
+                    WHERE EXISTS (
+                        SELECT 1
+                        FROM books_authors sba
+                        INNER JOIN authors sa ON sba.authors_id = sa.id
+                        WHERE sba.books_id = b.id AND lower(sa.name) LIKE lower(concat('%', :author, '%'))
+                    )
                     GROUP BY b.id
+                    ORDER BY max(similarity(lower(a.name), lower(:author))) DESC, b.id
                     """,
             nativeQuery = true
     )
-    Page<CatalogDto> findByAuthor(Pageable pageable, @Param("author") String author);
+    Page<CatalogDto> searchByAuthor(Pageable pageable, @Param("author") String author);
 
     @Query(
             countQuery = """
                     SELECT count(b.id)
                     FROM books b
-                    INNER JOIN books_authors ba ON b.id = ba.books_id
-                    LEFT JOIN authors a ON ba.authors_id = a.id
-                    WHERE lower(a.name) LIKE lower(concat('%', :author, '%'))
-                        AND lower(b.title) LIKE lower(concat('%', :title, '%'))
+                    WHERE lower(b.title) LIKE lower(concat('%', :title, '%'))
+                        AND EXISTS (
+                            SELECT 1
+                            FROM books_authors sba
+                            INNER JOIN authors sa ON sba.authors_id = sa.id
+                            WHERE sba.books_id = b.id AND lower(sa.name) LIKE lower(concat('%', :author, '%'))
+                        )
                     """,
             value = """
                     SELECT b.id, b.title, b.available, b.price, b.year, b.cover_id as coverId, array_agg(a.name) authors
                     FROM books b
                     INNER JOIN books_authors ba ON b.id = ba.books_id
                     LEFT JOIN authors a ON ba.authors_id = a.id
-                    WHERE lower(a.name) LIKE lower(concat('%', :author, '%'))
-                        AND lower(b.title) LIKE lower(concat('%', :title, '%'))
+                    WHERE lower(b.title) LIKE lower(concat('%', :title, '%'))
+                        AND EXISTS (
+                            SELECT 1
+                            FROM books_authors sba
+                            INNER JOIN authors sa ON sba.authors_id = sa.id
+                            WHERE sba.books_id = b.id AND lower(sa.name) LIKE lower(concat('%', :author, '%'))
+                        )
                     GROUP BY b.id
+                    ORDER BY similarity(lower(b.title), lower(:title)) + max(similarity(lower(a.name), lower(:author))) DESC, b.id
                     """,
             nativeQuery = true
     )
-    Page<CatalogDto> findByTitleAndAuthor(Pageable pageable, @Param("title") String title, @Param("author") String author);
+    Page<CatalogDto> searchByTitleAndAuthor(Pageable pageable, @Param("title") String title, @Param("author") String author);
 }
@@ -0,0 +1,61 @@
+package com.demo.catalog.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+
+@Repository
+@RequiredArgsConstructor
+public class BookStockRepository {
+    private static final String RESERVE = """
+            UPDATE books SET available = available - ?, version = version + 1
+            WHERE id = ? AND available >= ?
+            """;
+    private static final String RELEASE = """
+            UPDATE books SET available = available + ?, version = version + 1
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // INFO -> Conditional decrement in a single statement per book, so concurrent orders on the same book
+    //  wait on the row lock instead of failing on the version check. Books are updated in id order to keep
+    //  lock acquisition consistent between orders. Returns ids of books without enough copies.
+    public List<Long> reserve(SortedMap<Long, Integer> quantities) {
+        var entries = List.copyOf(quantities.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(
+                RESERVE,
+                entries.stream()
+                       .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue()})
+                       .toList()
+        );
+        var missing = new ArrayList<Long>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(entries.get(i).getKey());
+            }
+        }
+        return missing;
+    }
+
+    public void release(SortedMap<Long, Integer> quantities) {
+        jdbcTemplate.batchUpdate(
+                RELEASE,
+                quantities.entrySet()
+                          .stream()
+                          .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                          .toList()
+        );
+    }
+
+    public Optional<Long> findAvailable(long bookId) {
+        return jdbcTemplate.queryForList("SELECT available FROM books WHERE id = ?", Long.class, bookId)
+                           .stream()
+                           .findFirst();
+    }
+}
@@ -0,0 +1,229 @@
+package com.demo.catalog.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// INFO -> Every statement takes whole columns as arrays and expands them with unnest, so a chunk of rows costs one
+//  round trip per table instead of one per row
+@Repository
+@RequiredArgsConstructor
+public class CatalogImportRepository {
+    private static final String FIND_AUTHORS = """
+            SELECT id, lower(name) AS name_key FROM authors
+            WHERE lower(name) = ANY (?)
+            """;
+    private static final String INSERT_AUTHORS = """
+            INSERT INTO authors (uuid, version, name)
+            SELECT uuid, 0, name FROM unnest(?::varchar[], ?::varchar[]) AS a (uuid, name)
+            ON CONFLICT ((lower(name))) DO NOTHING
+            RETURNING id, lower(name) AS name_key
+            """;
+    private static final String INSERT_BOOKS = """
+            INSERT INTO books (uuid, version, title, year, price, available)
+            SELECT uuid, 0, title, year, price, available
+            FROM unnest(?::varchar[], ?::varchar[], ?::int4[], ?::numeric[], ?::int8[])
+                AS b (uuid, title, year, price, available)
+            RETURNING id, uuid
+            """;
+    private static final String INSERT_BOOKS_AUTHORS = """
+            INSERT INTO books_authors (books_id, authors_id)
+            SELECT * FROM unnest(?::int8[], ?::int8[])
+            ON CONFLICT DO NOTHING
+            """;
+    private static final String RECORD_PROGRESS = """
+            UPDATE catalog_import_jobs
+            SET rows_parsed = rows_parsed + ?, rows_inserted = rows_inserted + ?, rows_skipped = rows_skipped + ?,
+                rows_failed = rows_failed + ?, committed_offset = ?, updated_at = ?, version = version + 1
+            WHERE id = ?
+            """;
+    private static final String INSERT_COVERS = """
+            INSERT INTO catalog_import_covers (job_id, book_id, url)
+            SELECT ?, * FROM unnest(?::int8[], ?::text[])
+            """;
+    private static final String FIND_PENDING_COVERS = """
+            SELECT c.book_id, c.url FROM catalog_import_covers c
+            INNER JOIN books b ON b.id = c.book_id
+            WHERE c.job_id = ? AND b.cover_id IS NULL
+            ORDER BY c.book_id
+            """;
+    private static final String RECORD_COVER = """
+            UPDATE catalog_import_jobs
+            SET covers_stored = covers_stored + ?, covers_failed = covers_failed + ?, updated_at = ?,
+                version = version + 1
+            WHERE id = ?
+            """;
+    private static final String INSERT_REJECT = """
+            INSERT INTO catalog_import_rejects (job_id, row_number, reason, record)
+            VALUES (?, ?, ?, ?)
+            """;
+    private static final String FIND_REJECTS = """
+            SELECT row_number, reason, record FROM catalog_import_rejects
+            WHERE job_id = ?
+            ORDER BY row_number
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // INFO -> Both author statements are keyed by lower case name, matching the unique index on lower(name)
+    public Map<String, Long> findAuthorIds(Collection<String> keys) {
+        var ids = new HashMap<String, Long>();
+        jdbcTemplate.query(
+                con -> {
+                    var ps = con.prepareStatement(FIND_AUTHORS);
+                    ps.setArray(1, con.createArrayOf("varchar", keys.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    ids.put(rs.getString("name_key"), rs.getLong("id"));
+                }
+        );
+        return ids;
+    }
+
+    // INFO -> Names stored in the meantime, e.g. by a concurrent import, are skipped and left out of the result
+    public Map<String, Long> insertAuthors(Collection<String> names) {
+        var ids = new HashMap<String, Long>();
+        jdbcTemplate.query(
+                con -> {
+                    var ps = con.prepareStatement(INSERT_AUTHORS);
+                    ps.setArray(1, con.createArrayOf("varchar", names.stream().map(name -> UUID.randomUUID().toString()).toArray()));
+                    ps.setArray(2, con.createArrayOf("varchar", names.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    ids.put(rs.getString("name_key"), rs.getLong("id"));
+                }
+        );
+        return ids;
+    }
+
+    // INFO -> Returns ids in the order of the given books
+    public List<Long> insertBooks(List<NewBook> books) {
+        var uuids = books.stream().map(book -> UUID.randomUUID().toString()).toList();
+        var ids = new HashMap<String, Long>();
+        jdbcTemplate.query(
+                con -> {
+                    var ps = con.prepareStatement(INSERT_BOOKS);
+                    ps.setArray(1, con.createArrayOf("varchar", uuids.toArray()));
+                    ps.setArray(2, con.createArrayOf("varchar", books.stream().map(NewBook::title).toArray()));
+                    ps.setArray(3, con.createArrayOf("int4", books.stream().map(NewBook::year).toArray()));
+                    ps.setArray(4, con.createArrayOf("numeric", books.stream().map(NewBook::price).toArray()));
+                    ps.setArray(5, con.createArrayOf("int8", books.stream().map(NewBook::available).toArray()));
+                    return ps;
+                },
+                rs -> {
+                    ids.put(rs.getString("uuid"), rs.getLong("id"));
+                }
+        );
+        return uuids.stream().map(ids::get).toList();
+    }
+
+    public void linkAuthors(List<Long> bookIds, List<Long> authorIds) {
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(INSERT_BOOKS_AUTHORS);
+            ps.setArray(1, con.createArrayOf("int8", bookIds.toArray()));
+            ps.setArray(2, con.createArrayOf("int8", authorIds.toArray()));
+            return ps;
+        });
+    }
+
+    public void updateCover(long bookId, long coverId) {
+        jdbcTemplate.update("UPDATE books SET cover_id = ?, version = version + 1 WHERE id = ?", coverId, bookId);
+    }
+
+    // INFO -> Thumbnail urls are kept until the cover is stored or given up, so a resumed job fetches what is left
+    public void insertCovers(long jobId, List<Long> bookIds, List<String> urls) {
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(INSERT_COVERS);
+            ps.setLong(1, jobId);
+            ps.setArray(2, con.createArrayOf("int8", bookIds.toArray()));
+            ps.setArray(3, con.createArrayOf("text", urls.toArray()));
+            return ps;
+        });
+    }
+
+    public List<PendingCover> findPendingCovers(long jobId) {
+        return jdbcTemplate.query(
+                FIND_PENDING_COVERS,
+                (rs, rowNum) -> new PendingCover(rs.getLong("book_id"), rs.getString("url")),
+                jobId
+        );
+    }
+
+    public void recordCoverStored(long jobId, long bookId, LocalDateTime now) {
+        recordCover(jobId, bookId, 1, 0, now);
+    }
+
+    public void recordCoverFailed(long jobId, long bookId, LocalDateTime now) {
+        recordCover(jobId, bookId, 0, 1, now);
+    }
+
+    // INFO -> Covers of books that got one elsewhere in the meantime are no longer pending either
+    public void deleteCovers(long jobId) {
+        jdbcTemplate.update("DELETE FROM catalog_import_covers WHERE job_id = ?", jobId);
+    }
+
+    private void recordCover(long jobId, long bookId, int stored, int failed, LocalDateTime now) {
+        jdbcTemplate.update("DELETE FROM catalog_import_covers WHERE book_id = ?", bookId);
+        jdbcTemplate.update(RECORD_COVER, stored, failed, now, jobId);
+    }
+
+    public void recordProgress(long jobId, Progress progress, LocalDateTime now) {
+        jdbcTemplate.update(
+                RECORD_PROGRESS,
+                progress.parsed(),
+                progress.inserted(),
+                progress.skipped(),
+                progress.failed(),
+                progress.offset(),
+                now,
+                jobId
+        );
+    }
+
+    public void insertRejects(long jobId, List<Reject> rejects) {
+        jdbcTemplate.batchUpdate(INSERT_REJECT, rejects, rejects.size(), (ps, reject) -> {
+            ps.setLong(1, jobId);
+            ps.setLong(2, reject.rowNumber());
+            ps.setString(3, reject.reason());
+            ps.setArray(4, ps.getConnection().createArrayOf("text", reject.record()));
+        });
+    }
+
+    // INFO -> Rejects are handed over one by one as they are read, so a large rejects file is never held in memory
+    public void findRejects(long jobId, Consumer<Reject> consumer) {
+        jdbcTemplate.query(
+                con -> {
+                    var ps = con.prepareStatement(FIND_REJECTS);
+                    ps.setFetchSize(500);
+                    ps.setLong(1, jobId);
+                    return ps;
+                },
+                rs -> {
+                    consumer.accept(new Reject(
+                            rs.getLong("row_number"),
+                            rs.getString("reason"),
+                            (String[]) rs.getArray("record").getArray()
+                    ));
+                }
+        );
+    }
+
+    public record NewBook(String title, int year, BigDecimal price, long available) { }
+
+    public record Progress(long parsed, long inserted, long skipped, long failed, long offset) { }
+
+    public record PendingCover(long bookId, String url) { }
+
+    public record Reject(long rowNumber, String reason, String[] record) { }
+}
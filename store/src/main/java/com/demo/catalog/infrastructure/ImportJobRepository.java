@@ -0,0 +1,16 @@
+package com.demo.catalog.infrastructure;
+
+import com.demo.catalog.domain.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    @Query("""
+        SELECT j.id FROM ImportJob j
+        WHERE j.status = com.demo.catalog.domain.ImportJobStatus.RUNNING
+        ORDER BY j.id
+    """)
+    List<Long> findRunningIds();
+}
@@ -0,0 +1,243 @@
+package com.demo.catalog.infrastructure;
+
+import com.demo.catalog.application.CatalogProperties;
+import com.demo.catalog.application.exceptions.ThumbnailFetchException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// INFO -> Fetches thumbnails over a shared client that keeps connections alive between requests. Requests to one
+//  host are limited by a semaphore, so a slow host ties up only a few of the import's fetchers. Every attempt has
+//  a deadline for the whole response, and bodies are buffered only up to the size limit. Connection errors,
+//  timeouts, 429 and 5xx responses are retried with exponential backoff, and the host permit is given back while
+//  waiting so other covers from the same host can go ahead.
+@Component
+public class ThumbnailFetcher {
+    private final CatalogProperties.Thumbnails settings;
+    private final HttpClient client;
+    private final Cache<String, Semaphore> hosts = Caffeine.newBuilder().weakValues().build();
+    private final MeterRegistry meterRegistry;
+    private final Counter retries;
+    private final DistributionSummary sizes;
+
+    public ThumbnailFetcher(CatalogProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.thumbnails();
+        this.client = HttpClient.newBuilder()
+                                .connectTimeout(settings.connectTimeout())
+                                .followRedirects(HttpClient.Redirect.NORMAL)
+                                .build();
+        this.meterRegistry = meterRegistry;
+        this.retries = meterRegistry.counter("catalog.thumbnails.retries");
+        this.sizes = DistributionSummary.builder("catalog.thumbnails.size")
+                                        .baseUnit("bytes")
+                                        .register(meterRegistry);
+    }
+
+    public Thumbnail fetch(String url) {
+        URI uri = toUri(url);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            Thumbnail thumbnail = fetchWithRetries(uri);
+            sizes.record(thumbnail.content().length);
+            outcome = "success";
+            return thumbnail;
+        } finally {
+            sample.stop(meterRegistry.timer("catalog.thumbnails.fetch", "outcome", outcome));
+        }
+    }
+
+    // INFO -> Host semaphores are only weakly referenced by the map, so one is dropped once no fetch holds it and
+    //  untrusted import files cannot grow the map with every host they name
+    private Thumbnail fetchWithRetries(URI uri) {
+        Semaphore permits = hosts.get(uri.getAuthority(), host -> new Semaphore(settings.maxPerHost()));
+        for (int attempt = 0; ; attempt++) {
+            IOException failure;
+            permits.acquireUninterruptibly();
+            try {
+                return fetchOnce(uri);
+            } catch (IOException ex) {
+                failure = ex;
+            } finally {
+                permits.release();
+            }
+            if (attempt >= settings.retries()) {
+                throw new ThumbnailFetchException(uri.toString(), failure.getMessage());
+            }
+            retries.increment();
+            backoff(uri, attempt);
+        }
+    }
+
+    private Thumbnail fetchOnce(URI uri) throws IOException {
+        var request = HttpRequest.newBuilder(uri)
+                                 .timeout(settings.timeout())
+                                 .GET()
+                                 .build();
+        long maxSize = settings.maxSize().toBytes();
+        CompletableFuture<HttpResponse<byte[]>> response = client.sendAsync(request, info -> {
+            boolean tooLarge = info.headers().firstValueAsLong("Content-Length").orElse(0) > maxSize;
+            return info.statusCode() == 200 && !tooLarge
+                    ? new LimitedBody(maxSize)
+                    : new DiscardedBody();
+        });
+        try {
+            return toThumbnail(uri, response.get(settings.timeout().toMillis(), TimeUnit.MILLISECONDS), maxSize);
+        } catch (TimeoutException ex) {
+            response.cancel(true);
+            throw new IOException("timed out after " + settings.timeout().toMillis() + " ms");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new ThumbnailFetchException(uri.toString(), String.valueOf(ex.getCause()));
+        } catch (InterruptedException ex) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ThumbnailFetchException(uri.toString(), "interrupted");
+        }
+    }
+
+    private Thumbnail toThumbnail(URI uri, HttpResponse<byte[]> response, long maxSize) throws IOException {
+        int status = response.statusCode();
+        if (status == 429 || status >= 500) {
+            throw new IOException("status " + status);
+        }
+        if (status != 200) {
+            throw new ThumbnailFetchException(uri.toString(), "status " + status);
+        }
+        if (response.body() == null) {
+            throw new ThumbnailFetchException(uri.toString(), "larger than " + maxSize + " bytes");
+        }
+        Optional<String> contentType = response.headers().firstValue("Content-Type");
+        if (contentType.isEmpty()) {
+            throw new ThumbnailFetchException(uri.toString(), "missing content type");
+        }
+        return new Thumbnail(response.body(), contentType.get());
+    }
+
+    private void backoff(URI uri, int attempt) {
+        try {
+            Thread.sleep(settings.backoff().multipliedBy(1L << attempt).toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ThumbnailFetchException(uri.toString(), "interrupted");
+        }
+    }
+
+    private static URI toUri(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+                throw new ThumbnailFetchException(url, "unsupported scheme");
+            }
+            return uri;
+        } catch (IllegalArgumentException ex) {
+            throw new ThumbnailFetchException(url, "invalid url");
+        }
+    }
+
+    public record Thumbnail(byte[] content, String contentType) { }
+
+    // INFO -> Cancels the body before any of it is read, so an error page or an oversized cover neither ties up the
+    //  host permit while it downloads nor runs into the timeout and gets retried
+    private static final class DiscardedBody implements HttpResponse.BodySubscriber<byte[]> {
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.cancel();
+            body.complete(null);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.complete(null);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(null);
+        }
+    }
+
+    // INFO -> Buffers the body and gives up as soon as it grows past the limit, for responses sent without a length
+    private static final class LimitedBody implements HttpResponse.BodySubscriber<byte[]> {
+        private final long maxSize;
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        private LimitedBody(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (body.isDone()) {
+                return;
+            }
+            for (ByteBuffer buffer : buffers) {
+                if (content.size() + buffer.remaining() > maxSize) {
+                    subscription.cancel();
+                    body.complete(null);
+                    return;
+                }
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                content.writeBytes(bytes);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(content.toByteArray());
+        }
+    }
+}
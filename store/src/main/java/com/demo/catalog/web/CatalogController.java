@@ -1,12 +1,16 @@
 package com.demo.catalog.web;
 
 import com.demo.catalog.application.CatalogService;
+import com.demo.catalog.application.ImportJobService;
 import com.demo.catalog.application.commands.RestBookCommand;
 import com.demo.catalog.application.commands.UpdateBookCoverCommand;
+import com.demo.catalog.application.responses.ImportJobResponse;
 import com.demo.catalog.application.responses.CatalogDto;
 import com.demo.catalog.domain.Book;
 import com.demo.shared.errors.Problem;
 import com.demo.shared.web.CreatedUri;
+import com.demo.shared.web.Cursor;
+import com.demo.shared.web.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -19,6 +23,8 @@ import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
@@ -26,11 +32,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -43,6 +54,7 @@ import java.util.stream.Collectors;
 @Tag(name = "Books", description = "Books catalog API")
 class CatalogController {
     private final CatalogService catalog;
+    private final ImportJobService importJobs;
 
     @Operation(
             summary = "Get all books",
@@ -79,6 +91,49 @@ class CatalogController {
         return catalog.findAll(options).map(book -> toRestBook(book, request));
     }
 
+    @Operation(
+            summary = "Get all books with cursor",
+            description = "Get books ordered by id after the given cursor. Pass an empty after to start from the beginning"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Get books",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPage.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetail.class)
+                    )
+            )
+    })
+    @GetMapping(params = "after")
+    @ResponseStatus(HttpStatus.OK)
+    public CursorPage<RestBook> getAllAfter(
+            @RequestParam(name = "after", defaultValue = "") String after,
+            @RequestParam(required = false, name = "title") Optional<String> title,
+            @RequestParam(required = false, name = "author") Optional<String> author,
+            @RequestParam(required = false, name = "pageSize") Optional<Integer> pageSize,
+            HttpServletRequest request
+    ) {
+        var options = new BookRequestParams(title, author, Optional.empty(), pageSize);
+        return catalog.findAllAfter(options, Cursor.decode(after)).map(book -> toRestBook(book, request));
+    }
+
     private RestBook toRestBook(CatalogDto book, HttpServletRequest request) {
         String coverUrl = Optional
                 .ofNullable(book.getCoverId())
@@ -266,12 +321,14 @@ class CatalogController {
             return ResponseEntity.badRequest().body("Only images are allowed");
         }
 
-        catalog.updateBookCover(new UpdateBookCoverCommand(
-                id,
-                file.getBytes(),
-                file.getContentType(),
-                file.getOriginalFilename()
-        ));
+        try (InputStream content = file.getInputStream()) {
+            catalog.updateBookCover(new UpdateBookCoverCommand(
+                    id,
+                    content,
+                    file.getContentType(),
+                    file.getOriginalFilename()
+            ));
+        }
         return ResponseEntity.accepted().build();
     }
 
@@ -374,14 +431,15 @@ class CatalogController {
 
     @Operation(
             summary = "Import books from csv",
-            description = "Import books from csv"
+            description = "Start an import job for books from csv, its progress is available under the returned location"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "202",
                     description = "Accepted",
                     content = @Content(
-                            mediaType = "application/json"
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ImportJobResponse.class)
                     )
             ),
             @ApiResponse(
@@ -422,15 +480,136 @@ class CatalogController {
         if(!isCsv(Objects.requireNonNull(csv.getContentType()))) {
             return ResponseEntity.badRequest().body("Only csv are allowed");
         }
-        catalog.addFromCsv(csv.getBytes());
-
-        return ResponseEntity.accepted().build();
+        // INFO -> The import runs after the request completes, when the multipart temp file is already gone
+        Path csvFile = Files.createTempFile("catalog-import", ".csv");
+        try {
+            csv.transferTo(csvFile);
+            var job = importJobs.submit(csvFile, csv.getOriginalFilename());
+            return ResponseEntity.accepted()
+                                 .location(new CreatedUri("/" + job.getId()).uri())
+                                 .body(importJobs.findById(job.getId()).orElseThrow());
+        } finally {
+            Files.deleteIfExists(csvFile);
+        }
     }
 
     private boolean isCsv(String contentType) {
         return contentType.startsWith("text/csv");
     }
 
+    @Operation(
+            summary = "Get import job",
+            description = "Get progress of a books import by job id"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Get import job",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ImportJobResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(
+                            mediaType = "application/json"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden",
+                    content = @Content(
+                            mediaType = "application/json"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Not found",
+                    content = @Content(
+                            mediaType = "application/json"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetail.class)
+                    )
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @Secured("ADMIN")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable(name = "jobId") Long jobId) {
+        return importJobs.findById(jobId)
+                         .map(ResponseEntity::ok)
+                         .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+            summary = "Get rejected rows of import job",
+            description = "Download rows of a books import that were skipped or failed, with the reason of each"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Get rejected rows",
+                    content = @Content(
+                            mediaType = "text/csv"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(
+                            mediaType = "application/json"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden",
+                    content = @Content(
+                            mediaType = "application/json"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Not found",
+                    content = @Content(
+                            mediaType = "application/json"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetail.class)
+                    )
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @Secured("ADMIN")
+    @GetMapping("/import/{jobId}/rejects")
+    public ResponseEntity<StreamingResponseBody> getImportRejects(@PathVariable(name = "jobId") Long jobId) {
+        if (importJobs.findById(jobId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                             .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                             .header(
+                                     HttpHeaders.CONTENT_DISPOSITION,
+                                     ContentDisposition.attachment()
+                                                       .filename("import-" + jobId + "-rejects.csv")
+                                                       .build()
+                                                       .toString()
+                             )
+                             .body(out -> importJobs.writeRejects(jobId, out));
+    }
+
     @Operation(
             summary = "Delete book by id",
             description = "Delete book by id"
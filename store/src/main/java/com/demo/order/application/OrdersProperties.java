@@ -1,11 +1,20 @@
 package com.demo.order.application;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 import java.time.Duration;
 
 @ConfigurationProperties("app.orders")
 public record OrdersProperties (
         Duration paymentPeriod,
-        String abandonCron
-) { }
+        String abandonCron,
+        @DefaultValue("500") int abandonChunkSize,
+        @DefaultValue Reservations reservations
+) {
+    public record Reservations(
+            boolean enabled,
+            @DefaultValue("PT1S") Duration flushInterval,
+            @DefaultValue("64") int stripes
+    ) { }
+}
@@ -0,0 +1,7 @@
+package com.demo.order.application.exceptions;
+
+public class UnknownOrderStatusException extends RuntimeException {
+    public UnknownOrderStatusException(String status) {
+        super("Unknown order status: " + status);
+    }
+}
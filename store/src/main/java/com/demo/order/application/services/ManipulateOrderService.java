@@ -1,26 +1,33 @@
 package com.demo.order.application.services;
 
-import com.demo.catalog.domain.Book;
+import com.demo.catalog.application.CatalogCache;
 import com.demo.catalog.infrastructure.BookRepository;
-import com.demo.order.application.exceptions.OutOfStockException;
 import com.demo.order.application.placeOrder.Error;
 import com.demo.order.application.placeOrder.commands.OrderItemCommand;
 import com.demo.order.application.placeOrder.commands.PlaceOrderCommand;
 import com.demo.order.application.placeOrder.commands.UpdateStatusCommand;
 import com.demo.order.application.placeOrder.responses.PlaceOrderResponse;
 import com.demo.order.application.placeOrder.responses.UpdateStatusResponse;
+import com.demo.order.application.stock.StockReservations;
 import com.demo.order.domain.Order;
 import com.demo.order.domain.OrderItem;
 import com.demo.order.domain.Recipient;
 import com.demo.order.domain.UpdateStatusResult;
 import com.demo.order.infrastructure.OrderRepository;
+import com.demo.order.infrastructure.OrderStockRepository;
+import com.demo.order.infrastructure.OrderStockRepository.AbandonedOrder;
 import com.demo.order.infrastructure.RecipientRepository;
 import com.demo.security.UserSecurity;
+import com.demo.shared.clock.Clock;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,10 +36,19 @@ import java.util.stream.Collectors;
 public class ManipulateOrderService {
     private final OrderRepository orderRepository;
     private final BookRepository bookRepository;
+    private final StockReservations stockReservations;
+    private final OrderStockRepository orderStockRepository;
     private final RecipientRepository recipientRepository;
     private final UserSecurity userSecurity;
+    private final CatalogCache catalogCache;
+    private final Clock clock;
 
     public PlaceOrderResponse placeOrder(PlaceOrderCommand command) {
+        SortedMap<Long, Integer> quantities = command
+                .getItems()
+                .stream()
+                .collect(Collectors.toMap(OrderItemCommand::bookId, OrderItemCommand::quantity, Integer::sum, TreeMap::new));
+        stockReservations.reserve(quantities);
         Set<OrderItem> items = command
                 .getItems()
                 .stream()
@@ -43,9 +59,10 @@ public class ManipulateOrderService {
                 .recipient(getOrCreateRecipient(command.getRecipient()))
                 .delivery(command.getDelivery())
                 .items(items)
+                .stockPending(stockReservations.deferred())
                 .build();
         Order savedOrder = orderRepository.save(order);
-        bookRepository.saveAll(reduceBooks(items));
+        catalogCache.evictBooks(quantities.keySet());
         return PlaceOrderResponse.success(savedOrder.getId());
     }
 
@@ -55,24 +72,8 @@ public class ManipulateOrderService {
                 .orElse(recipient);
     }
 
-    private Set<Book> reduceBooks(Set<OrderItem> items) {
-        return items
-                .stream()
-                .map(item -> {
-                    Book book = item.getBook();
-                    book.setAvailable(book.getAvailable() - item.getQuantity());
-                    return book;
-                })
-                .collect(Collectors.toSet());
-    }
-
     private OrderItem toOrderItem(OrderItemCommand command) {
-        Book book = bookRepository.getReferenceById(command.bookId());
-        int quantity = command.quantity();
-        if (book.getAvailable() >= quantity) {
-            return new OrderItem(book, quantity);
-        }
-        throw new OutOfStockException(book.getId(), quantity, book.getAvailable());
+        return new OrderItem(bookRepository.getReferenceById(command.bookId()), command.quantity());
     }
 
     public void deleteOrderById(Long id) {
@@ -86,7 +87,7 @@ public class ManipulateOrderService {
                     if(userSecurity.isOwnerOrAdmin(order.getRecipient().getEmail(), command.user())) {
                         UpdateStatusResult result = order.updateStatus(command.status());
                         if (result.isRevoked()) {
-                            bookRepository.saveAll(revokeBooks(order.getItems()));
+                            releaseStock(order);
                         }
                         orderRepository.save(order);
                         return UpdateStatusResponse.success(order.getStatus());
@@ -96,14 +97,25 @@ public class ManipulateOrderService {
                 .orElse(UpdateStatusResponse.failure(Error.NOT_FOUND));
     }
 
-    private Set<Book> revokeBooks(Set<OrderItem> items) {
-        return items
+    // INFO -> Flips a chunk of expired orders and returns their stock with set-based SQL, one chunk per transaction.
+    //  Returns the number of abandoned orders.
+    public int abandonOrders(LocalDateTime olderThan, int limit) {
+        List<AbandonedOrder> abandoned = orderStockRepository.abandon(olderThan, limit, clock.now());
+        if (abandoned.isEmpty()) {
+            return 0;
+        }
+        SortedMap<Long, Integer> quantities = orderStockRepository.restoreAbandoned(abandoned);
+        stockReservations.restore(quantities);
+        catalogCache.evictBooks(quantities.keySet());
+        return abandoned.size();
+    }
+
+    private void releaseStock(Order order) {
+        SortedMap<Long, Integer> quantities = order
+                .getItems()
                 .stream()
-                .map(item -> {
-                    Book book = item.getBook();
-                    book.setAvailable(book.getAvailable() + item.getQuantity());
-                    return book;
-                })
-                .collect(Collectors.toSet());
+                .collect(Collectors.toMap(item -> item.getBook().getId(), OrderItem::getQuantity, Integer::sum, TreeMap::new));
+        stockReservations.release(order.getId(), quantities);
+        catalogCache.evictBooks(quantities.keySet());
     }
 }
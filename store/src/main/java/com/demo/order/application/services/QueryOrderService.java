@@ -1,30 +1,69 @@
 package com.demo.order.application.services;
 
 import com.demo.order.application.RichOrder;
+import com.demo.order.application.exceptions.UnknownOrderStatusException;
 import com.demo.order.application.price.OrderPrice;
 import com.demo.order.application.price.PriceService;
 import com.demo.order.domain.Order;
+import com.demo.order.domain.OrderStatus;
 import com.demo.order.infrastructure.OrderRepository;
 import com.demo.order.web.OrderRequestParams;
+import com.demo.shared.web.CursorPage;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class QueryOrderService {
     private final OrderRepository orderRepository;
     private final PriceService priceService;
 
+    // INFO -> Paging a collection fetch makes Hibernate load every order and paginate in memory,
+    //  so page over the ids first and fetch the graph only for that page
     public Page<RichOrder> findAll(OrderRequestParams options) {
-        return orderRepository.findAllPage(getPageable(options))
-                              .map(this::toRichOrder);
+        Pageable pageable = getPageable(options);
+        Page<Long> ids = getStatus(options)
+                .map(status -> orderRepository.findIdsPageByStatus(status, pageable))
+                .orElseGet(() -> orderRepository.findIdsPage(pageable));
+        return new PageImpl<>(findDetails(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    public CursorPage<RichOrder> findAllAfter(OrderRequestParams options, long after) {
+        int size = options.getPageSize().get();
+        Limit limit = Limit.of(size + 1);
+        List<Long> rows = getStatus(options)
+                .map(status -> orderRepository.findIdsAfterByStatus(after, status, limit))
+                .orElseGet(() -> orderRepository.findIdsAfter(after, limit));
+        CursorPage<Long> ids = CursorPage.of(rows, size, Long::longValue);
+        return ids.withContent(findDetails(ids.content()));
+    }
+
+    private List<RichOrder> findDetails(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return orderRepository.findAllWithDetailsByIdIn(ids)
+                              .stream()
+                              .map(this::toRichOrder)
+                              .toList();
+    }
+
+    // INFO -> Filtered and unfiltered listings are separate queries so each can use its own index
+    private Optional<OrderStatus> getStatus(OrderRequestParams options) {
+        return options.getStatus()
+                      .map(status -> OrderStatus.parseString(status)
+                                                .orElseThrow(() -> new UnknownOrderStatusException(status)));
     }
 
     private Pageable getPageable(OrderRequestParams options) {
@@ -37,7 +76,7 @@ public class QueryOrderService {
     }
 
     public Optional<RichOrder> findById(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findWithDetailsById(id)
                               .map(this::toRichOrder);
     }
 
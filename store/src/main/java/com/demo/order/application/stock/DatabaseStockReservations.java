@@ -0,0 +1,45 @@
+package com.demo.order.application.stock;
+
+import com.demo.catalog.infrastructure.BookStockRepository;
+import com.demo.order.application.exceptions.OutOfStockException;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.SortedMap;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.orders.reservations.enabled", havingValue = "false", matchIfMissing = true)
+public class DatabaseStockReservations implements StockReservations {
+    private final BookStockRepository bookStockRepository;
+
+    @Override
+    public boolean deferred() {
+        return false;
+    }
+
+    @Override
+    public void reserve(SortedMap<Long, Integer> quantities) {
+        List<Long> missing = bookStockRepository.reserve(quantities);
+        if (!missing.isEmpty()) {
+            Long bookId = missing.get(0);
+            long available = bookStockRepository
+                    .findAvailable(bookId)
+                    .orElseThrow(() -> new EntityNotFoundException("Unable to find Book with id " + bookId));
+            throw new OutOfStockException(bookId, quantities.get(bookId), available);
+        }
+    }
+
+    // INFO -> Orders left pending by the in-memory reservations are applied on startup, so there is nothing to clear here
+    @Override
+    public void release(long orderId, SortedMap<Long, Integer> quantities) {
+        bookStockRepository.release(quantities);
+    }
+
+    @Override
+    public void restore(SortedMap<Long, Integer> quantities) {
+    }
+}
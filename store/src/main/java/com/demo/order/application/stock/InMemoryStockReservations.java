@@ -0,0 +1,204 @@
+package com.demo.order.application.stock;
+
+import com.demo.catalog.infrastructure.BookStockRepository;
+import com.demo.order.application.OrdersProperties;
+import com.demo.order.application.exceptions.OutOfStockException;
+import com.demo.order.infrastructure.OrderStockRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// INFO -> Keeps per-book counters in memory so hot books are reserved without touching their row. Orders placed
+//  this way are stored as stock pending and applied to books.available in batches by PendingStockFlusher.
+//  A counter holds books.available minus pending orders minus reservations of running transactions, so it
+//  assumes a single application instance.
+@Service
+@ConditionalOnProperty(name = "app.orders.reservations.enabled", havingValue = "true")
+public class InMemoryStockReservations implements StockReservations {
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final OrderStockRepository orderStockRepository;
+    private final BookStockRepository bookStockRepository;
+    private final PendingStockFlusher flusher;
+
+    public InMemoryStockReservations(
+            OrdersProperties properties,
+            OrderStockRepository orderStockRepository,
+            BookStockRepository bookStockRepository,
+            PendingStockFlusher flusher
+    ) {
+        this.stripes = new ReentrantLock[properties.reservations().stripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.orderStockRepository = orderStockRepository;
+        this.bookStockRepository = bookStockRepository;
+        this.flusher = flusher;
+    }
+
+    @Override
+    public boolean deferred() {
+        return true;
+    }
+
+    @Override
+    public void reserve(SortedMap<Long, Integer> quantities) {
+        requireTransaction();
+        var reserved = new TreeMap<Long, Integer>();
+        try {
+            quantities.forEach((bookId, quantity) -> {
+                take(bookId, quantity);
+                reserved.put(bookId, quantity);
+            });
+        } catch (RuntimeException ex) {
+            reserved.forEach(this::giveBack);
+            throw ex;
+        }
+        afterCompletion(committed -> reserved.forEach(committed ? this::settle : this::giveBack));
+    }
+
+    // INFO -> If the order is still pending its stock never left the counters' view of books.available,
+    //  otherwise it is returned to the row. Either way the counter gets the quantity back after commit.
+    @Override
+    public void release(long orderId, SortedMap<Long, Integer> quantities) {
+        requireTransaction();
+        if (!orderStockRepository.clearPending(orderId)) {
+            bookStockRepository.release(quantities);
+        }
+        restore(quantities);
+    }
+
+    @Override
+    public void restore(SortedMap<Long, Integer> quantities) {
+        requireTransaction();
+        var held = new TreeMap<Long, Integer>();
+        quantities.forEach((bookId, quantity) -> {
+            if (hold(bookId)) {
+                held.put(bookId, quantity);
+            }
+        });
+        afterCompletion(committed -> held.forEach(committed ? this::giveBack : this::settle));
+    }
+
+    // INFO -> Counters are reloaded after each flush to pick up stock changed outside of orders, e.g. by admins
+    @Scheduled(fixedDelayString = "${app.orders.reservations.flush-interval}")
+    public void flush() {
+        flusher.flush();
+        counters.keySet().forEach(this::invalidate);
+    }
+
+    private void take(long bookId, int quantity) {
+        withCounter(bookId, counter -> {
+            if (counter.available < quantity) {
+                throw new OutOfStockException(bookId, quantity, counter.available);
+            }
+            counter.available -= quantity;
+            counter.holds++;
+        });
+    }
+
+    private void settle(long bookId, int quantity) {
+        update(bookId, counter -> counter.holds--);
+    }
+
+    private void giveBack(long bookId, int quantity) {
+        update(bookId, counter -> {
+            counter.available += quantity;
+            counter.holds--;
+        });
+    }
+
+    private boolean hold(long bookId) {
+        var lock = stripe(bookId);
+        lock.lock();
+        try {
+            var counter = counters.get(bookId);
+            if (counter == null) {
+                return false;
+            }
+            counter.holds++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidate(long bookId) {
+        update(bookId, counter -> counter.stale = true);
+    }
+
+    private void withCounter(long bookId, Consumer<Counter> action) {
+        var lock = stripe(bookId);
+        lock.lock();
+        try {
+            var counter = counters.computeIfAbsent(bookId, this::load);
+            action.accept(counter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // INFO -> A counter with holds is never dropped, so operations started on it always find it again
+    private void update(long bookId, Consumer<Counter> action) {
+        var lock = stripe(bookId);
+        lock.lock();
+        try {
+            var counter = counters.get(bookId);
+            if (counter == null) {
+                return;
+            }
+            action.accept(counter);
+            if (counter.stale && counter.holds == 0) {
+                counters.remove(bookId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Counter load(long bookId) {
+        long available = orderStockRepository
+                .findUnreservedAvailable(bookId)
+                .orElseThrow(() -> new EntityNotFoundException("Unable to find Book with id " + bookId));
+        return new Counter(available);
+    }
+
+    private ReentrantLock stripe(long bookId) {
+        return stripes[Math.floorMod(bookId, stripes.length)];
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock reservations require an active transaction");
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private static final class Counter {
+        private long available;
+        private int holds;
+        private boolean stale;
+
+        private Counter(long available) {
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.demo.order.application.stock;
+
+import com.demo.catalog.application.CatalogCache;
+import com.demo.order.infrastructure.OrderStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingStockFlusher {
+    private final OrderStockRepository orderStockRepository;
+    private final CatalogCache catalogCache;
+
+    // INFO -> Also runs on startup, whether reservations are enabled or not, to apply orders
+    //  committed by a previous run that stopped before its last flush
+    @EventListener(ApplicationReadyEvent.class)
+    public void flush() {
+        var bookIds = orderStockRepository.applyPending();
+        if (!bookIds.isEmpty()) {
+            log.info("Applied pending stock of books: " + bookIds.size());
+            catalogCache.evictBooks(bookIds);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.demo.order.application.stock;
+
+import java.util.SortedMap;
+
+public interface StockReservations {
+    // INFO -> True when orders are placed before books.available is updated, see Order.stockPending
+    boolean deferred();
+
+    void reserve(SortedMap<Long, Integer> quantities);
+
+    void release(long orderId, SortedMap<Long, Integer> quantities);
+
+    // INFO -> Stock of revoked orders was already returned to books or cleared from pending orders by the caller
+    void restore(SortedMap<Long, Integer> quantities);
+}
@@ -18,6 +18,17 @@ import java.util.Set;
 
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(
+        name = Order.DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "items", subgraph = "items"),
+                @NamedAttributeNode("recipient")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "book", subgraph = "book")),
+                @NamedSubgraph(name = "book", attributeNodes = @NamedAttributeNode("authors"))
+        }
+)
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
@@ -25,6 +36,8 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order extends BaseEntity {
+    // INFO -> Everything needed to price and render an order, loaded in a single select
+    public static final String DETAILS_GRAPH = "Order.details";
 
     @Builder.Default
     @Enumerated(EnumType.STRING)
@@ -51,6 +64,12 @@ public class Order extends BaseEntity {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    // INFO -> Stock was reserved in memory and books.available does not reflect this order yet.
+    //  Cleared with plain SQL by the stock flusher, so the entity never writes it after insert
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private boolean stockPending = false;
+
     public UpdateStatusResult updateStatus(OrderStatus newStatus) {
         UpdateStatusResult result = this.status.updateStatus(newStatus);
         this.status = result.getNewStatus();
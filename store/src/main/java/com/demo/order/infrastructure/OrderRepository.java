@@ -1,27 +1,42 @@
 package com.demo.order.infrastructure;
 
-import com.demo.catalog.application.responses.CatalogDto;
 import com.demo.order.domain.Order;
 import com.demo.order.domain.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query(
             countQuery = "SELECT count(o.id) FROM Order o",
-            value = """
-                    SELECT o FROM Order AS o
-                    LEFT JOIN FETCH o.items AS oi
-                    LEFT JOIN FETCH o.recipient AS r
-                    LEFT JOIN FETCH oi.book AS b
-                    """
+            value = "SELECT o.id FROM Order o"
     )
-    Page<Order> findAllPage(Pageable pageable);
+    Page<Long> findIdsPage(Pageable pageable);
 
-    List<Order> findByStatusAndCreatedAtLessThanEqual(OrderStatus status, LocalDateTime timestamp);
+    @Query(
+            countQuery = "SELECT count(o.id) FROM Order o WHERE o.status = :status",
+            value = "SELECT o.id FROM Order o WHERE o.status = :status"
+    )
+    Page<Long> findIdsPageByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    @EntityGraph(Order.DETAILS_GRAPH)
+    Optional<Order> findWithDetailsById(Long id);
+
+    @Query("SELECT o.id FROM Order o WHERE o.id > :after ORDER BY o.id")
+    List<Long> findIdsAfter(@Param("after") long after, Limit limit);
+
+    @Query("SELECT o.id FROM Order o WHERE o.id > :after AND o.status = :status ORDER BY o.id")
+    List<Long> findIdsAfterByStatus(@Param("after") long after, @Param("status") OrderStatus status, Limit limit);
+
+    @EntityGraph(Order.DETAILS_GRAPH)
+    @Query("SELECT o FROM Order AS o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
 }
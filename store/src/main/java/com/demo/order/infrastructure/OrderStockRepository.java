@@ -0,0 +1,131 @@
+package com.demo.order.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderStockRepository {
+    private static final String APPLY_PENDING = """
+            WITH applied AS (
+                UPDATE orders SET stock_pending = false
+                WHERE stock_pending
+                RETURNING id
+            ), deltas AS (
+                SELECT oi.book_id, sum(oi.quantity) AS quantity
+                FROM order_items oi
+                JOIN applied a ON a.id = oi.order_id
+                GROUP BY oi.book_id
+            )
+            UPDATE books b SET available = b.available - d.quantity, version = b.version + 1
+            FROM deltas d
+            WHERE b.id = d.book_id
+            RETURNING b.id
+            """;
+    private static final String UNRESERVED_AVAILABLE = """
+            SELECT b.available - coalesce((
+                SELECT sum(oi.quantity)
+                FROM order_items oi
+                JOIN orders o ON o.id = oi.order_id
+                WHERE o.stock_pending AND oi.book_id = b.id
+            ), 0)
+            FROM books b
+            WHERE b.id = ?
+            """;
+
+    private static final String ABANDON = """
+            WITH picked AS (
+                SELECT id, stock_pending
+                FROM orders
+                WHERE status = 'NEW' AND created_at <= ?
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE orders o
+            SET status = 'ABANDONED', stock_pending = false, version = o.version + 1, updated_at = ?
+            FROM picked p
+            WHERE o.id = p.id
+            RETURNING o.id, p.stock_pending
+            """;
+    private static final String RESTORE_ABANDONED = """
+            WITH items AS (
+                SELECT book_id,
+                       sum(quantity) FILTER (WHERE order_id = ANY(?)) AS applied,
+                       sum(quantity) AS total
+                FROM order_items
+                WHERE order_id = ANY(?)
+                GROUP BY book_id
+            ), locked AS (
+                SELECT b.id
+                FROM books b
+                JOIN items i ON i.book_id = b.id AND i.applied IS NOT NULL
+                ORDER BY b.id
+                FOR UPDATE OF b
+            ), restored AS (
+                UPDATE books b SET available = b.available + i.applied, version = b.version + 1
+                FROM items i
+                JOIN locked l ON l.id = i.book_id
+                WHERE b.id = i.book_id
+            )
+            SELECT book_id, total FROM items
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // INFO -> Single statement, so pending orders are applied to books atomically even without a transaction.
+    //  Returns ids of the updated books.
+    public List<Long> applyPending() {
+        return jdbcTemplate.queryForList(APPLY_PENDING, Long.class);
+    }
+
+    // INFO -> Waits for a running flush to commit, so true means the order's stock never reached books
+    public boolean clearPending(long orderId) {
+        return jdbcTemplate.update("UPDATE orders SET stock_pending = false WHERE id = ? AND stock_pending", orderId) == 1;
+    }
+
+    // INFO -> Skips orders locked by a concurrent status change, they are picked up by the next run
+    public List<AbandonedOrder> abandon(LocalDateTime olderThan, int limit, LocalDateTime now) {
+        return jdbcTemplate.query(
+                ABANDON,
+                (rs, rowNum) -> new AbandonedOrder(rs.getLong(1), rs.getBoolean(2)),
+                olderThan, limit, now
+        );
+    }
+
+    // INFO -> Returns stock of orders already applied to books and the total quantity per book of all given orders.
+    //  Books are locked in id order, the same order placeOrder reserves them in.
+    public SortedMap<Long, Integer> restoreAbandoned(List<AbandonedOrder> orders) {
+        Long[] applied = orders.stream()
+                               .filter(order -> !order.stockPending())
+                               .map(AbandonedOrder::id)
+                               .toArray(Long[]::new);
+        Long[] all = orders.stream()
+                           .map(AbandonedOrder::id)
+                           .toArray(Long[]::new);
+        var quantities = new TreeMap<Long, Integer>();
+        jdbcTemplate.query(
+                RESTORE_ABANDONED,
+                rs -> {
+                    quantities.put(rs.getLong(1), rs.getInt(2));
+                },
+                applied, all
+        );
+        return quantities;
+    }
+
+    public Optional<Long> findUnreservedAvailable(long bookId) {
+        return jdbcTemplate.queryForList(UNRESERVED_AVAILABLE, Long.class, bookId)
+                           .stream()
+                           .findFirst();
+    }
+
+    public record AbandonedOrder(long id, boolean stockPending) { }
+}
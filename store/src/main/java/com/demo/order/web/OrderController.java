@@ -9,6 +9,8 @@ import com.demo.order.application.services.QueryOrderService;
 import com.demo.order.domain.OrderStatus;
 import com.demo.security.UserSecurity;
 import com.demo.shared.web.CreatedUri;
+import com.demo.shared.web.Cursor;
+import com.demo.shared.web.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -56,6 +58,14 @@ class OrderController {
                             schema = @Schema(implementation = Page.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown order status",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetail.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized",
@@ -90,6 +100,62 @@ class OrderController {
         return queryOrder.findAll(new OrderRequestParams(status, page, pageSize));
     }
 
+    @Operation(
+            summary = "Get orders with cursor",
+            description = "Get orders ordered by id after the given cursor. Pass an empty after to start from the beginning. Secured endpoint, only for admins"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Get orders",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPage.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor or unknown order status",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(
+                            mediaType = "application/problem+json"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden",
+                    content = @Content(
+                            mediaType = "application/problem+json"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetail.class)
+                    )
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @Secured("ADMIN")
+    @GetMapping(params = "after")
+    public CursorPage<RichOrder> getOrdersAfter(
+            @RequestParam(name = "after", defaultValue = "") String after,
+            @RequestParam(required = false, name = "status") Optional<String> status,
+            @RequestParam(required = false, name = "pageSize") Optional<Integer> pageSize
+    ) {
+        var options = new OrderRequestParams(status, Optional.empty(), pageSize);
+        return queryOrder.findAllAfter(options, Cursor.decode(after));
+    }
+
     @Operation(
             summary = "Get order",
             description = "Get order by id. Secured endpoint, only for admins and owners"
@@ -2,6 +2,7 @@ package com.demo.security;
 
 import com.demo.users.domain.User;
 import com.demo.users.infrastructure.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,16 +10,18 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @RequiredArgsConstructor
 public class AppConfig {
     private final UserRepository userRepository;
     private final AdminConfig config;
+    private final PasswordProperties passwordProperties;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public User systemUser() {
@@ -41,12 +44,30 @@ public class AppConfig {
         var provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService());
         provider.setPasswordEncoder(passwordEncoder());
+        provider.setUserDetailsPasswordService(userDetailsPasswordService());
 
         return provider;
     }
 
+    // INFO -> Called after a successful login whose stored hash is weaker than the configured strength
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newPassword) -> {
+            var user = (User) userDetails;
+            userRepository.updatePasswordHash(user.getId(), newPassword);
+            user.setPassword(newPassword);
+            return user;
+        };
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        var encoder = new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(passwordProperties.strength()),
+                passwordProperties,
+                meterRegistry
+        );
+        encoder.warmUp();
+        return encoder;
     }
 }
@@ -7,7 +7,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -17,7 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserVersions userVersions;
 
     @SneakyThrows
     @Override
@@ -33,18 +32,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         var jwt = authHeader.substring(7);
-        var email = jwtService.extractEmail(jwt);
-        if(email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userDetailsService.loadUserByUsername(email);
-            if(jwtService.isTokenValid(jwt, userDetails)) {
-                var authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+        var user = jwtService.verify(jwt).flatMap(jwtService::toUser);
+        if (user.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null
+                && userVersions.isCurrent(user.get())) {
+            var authentication = new UsernamePasswordAuthenticationToken(
+                    user.get(),
+                    null,
+                    user.get().getAuthorities()
+            );
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
         }
         filterChain.doFilter(request, response);
     }
@@ -1,76 +1,131 @@
 package com.demo.security;
 
+import com.demo.users.domain.Role;
+import com.demo.users.domain.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
-import java.util.Map;
-import java.util.function.Function;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+// INFO -> The signing key and parser are built once. Verified claims are cached under a hash of the token until the
+//  token expires, so repeated requests with the same token skip the signature check and the JSON parsing.
 @Component
 public class JwtService {
+    private static final String USER_ID = "uid";
+    private static final String ROLE = "role";
+    private static final String VERSION = "ver";
 
-    @Value("${jwt.secret}")
-    private String jwtKey;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final int jwtExpiration;
+    private final Cache<String, Claims> verified;
 
-    @Value("${jwt.expiration}")
-    private int jwtExpiration;
-
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(Map.of(), userDetails);
+    public JwtService(
+            @Value("${jwt.secret}") String jwtKey,
+            @Value("${jwt.expiration}") int jwtExpiration,
+            @Value("${jwt.cache-size}") long cacheSize
+    ) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtKey));
+        this.parser = Jwts.parserBuilder()
+                          .setSigningKey(signingKey)
+                          .build();
+        this.jwtExpiration = jwtExpiration;
+        this.verified = Caffeine.newBuilder()
+                                .maximumSize(cacheSize)
+                                .expireAfter(new UntilTokenExpires())
+                                .build();
     }
 
-    public String generateToken(Map<String, Object> claims, UserDetails userDetails) {
+    public String generateToken(User user) {
         return Jwts
                 .builder()
-                .setClaims(claims)
-                .setSubject(userDetails.getUsername())
+                .setSubject(user.getEmail())
+                .claim(USER_ID, user.getId())
+                .claim(ROLE, user.getRole().name())
+                .claim(VERSION, user.getVersion())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSingingKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        var email = extractEmail(token);
-        return email.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    // INFO -> Returns the claims of a correctly signed token that has not expired, otherwise an empty optional
+    public Optional<Claims> verify(String token) {
+        String key = hash(token);
+        Claims claims = verified.getIfPresent(key);
+        if (claims != null) {
+            return Optional.of(claims);
+        }
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        if (claims.getExpiration() != null) {
+            verified.put(key, claims);
+        }
+        return Optional.of(claims);
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = extactAllClaims(token);
-        return claimsResolver.apply(claims);
+    // INFO -> Rebuilds the user a token was issued for, so authenticated requests do not need to load it.
+    //  Tokens issued without these claims are not accepted.
+    public Optional<User> toUser(Claims claims) {
+        Long id = claims.get(USER_ID, Long.class);
+        String role = claims.get(ROLE, String.class);
+        Long version = claims.get(VERSION, Long.class);
+        if (claims.getSubject() == null || id == null || role == null || version == null) {
+            return Optional.empty();
+        }
+        var user = User.builder()
+                       .email(claims.getSubject())
+                       .role(Role.valueOf(role))
+                       .build();
+        user.setId(id);
+        user.setVersion(version);
+        return Optional.of(user);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date(System.currentTimeMillis()));
+    private static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+    private static final class UntilTokenExpires implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+        }
 
-    private Claims extactAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSingingKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
 
-    private Key getSingingKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
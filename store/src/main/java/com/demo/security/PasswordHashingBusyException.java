@@ -0,0 +1,7 @@
+package com.demo.security;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+        super("Too many password checks in progress, please try again later");
+    }
+}
@@ -0,0 +1,11 @@
+package com.demo.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("app.security.passwords")
+public record PasswordProperties(
+        @DefaultValue("10") int strength,
+        @DefaultValue("2") int threads,
+        @DefaultValue("16") int queueCapacity
+) { }
@@ -17,7 +17,7 @@ import java.util.List;
 
 @Configuration
 @EnableWebSecurity
-@EnableConfigurationProperties({AdminConfig.class})
+@EnableConfigurationProperties({AdminConfig.class, PasswordProperties.class})
 @RequiredArgsConstructor
 public class SecurityConfig {
 
@@ -0,0 +1,38 @@
+package com.demo.security;
+
+import com.demo.users.domain.User;
+import com.demo.users.infrastructure.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// INFO -> Current version of each user, compared with the version a token was issued for. Changing the password
+//  bumps the version and so revokes every token issued before. A version is loaded once and then replaced by
+//  UserService after each change, the ttl bounds how long another instance keeps accepting revoked tokens.
+@Component
+public class UserVersions {
+    private final LoadingCache<Long, Long> versions;
+
+    public UserVersions(
+            UserRepository userRepository,
+            @Value("${jwt.cache-size}") long cacheSize,
+            @Value("${jwt.user-versions-ttl}") Duration ttl
+    ) {
+        this.versions = Caffeine.newBuilder()
+                                .maximumSize(cacheSize)
+                                .expireAfterWrite(ttl)
+                                .build(id -> userRepository.findVersionById(id).orElse(null));
+    }
+
+    public boolean isCurrent(User user) {
+        Long current = versions.get(user.getId());
+        return current != null && current == user.getVersion();
+    }
+
+    public void update(User user) {
+        versions.put(user.getId(), user.getVersion());
+    }
+}
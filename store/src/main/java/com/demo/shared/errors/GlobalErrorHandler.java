@@ -4,12 +4,17 @@ import com.demo.catalog.application.exceptions.AuthorNotFoundException;
 import com.demo.catalog.application.exceptions.ParseCsvException;
 import com.demo.order.application.exceptions.InvalidStatusStateChangeException;
 import com.demo.order.application.exceptions.OutOfStockException;
+import com.demo.order.application.exceptions.UnknownOrderStatusException;
+import com.demo.security.PasswordHashingBusyException;
+import com.demo.shared.web.InvalidCursorException;
+import com.demo.upload.application.exceptions.UploadTooLargeException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 @RestControllerAdvice
 public class GlobalErrorHandler {
@@ -51,11 +56,31 @@ public class GlobalErrorHandler {
         return Problem.create(HttpStatus.CONFLICT, "Invalid status state change", ex.getMessage());
     }
 
+    @ExceptionHandler(UnknownOrderStatusException.class)
+    public ProblemDetail resourceNotFoundException(UnknownOrderStatusException ex) {
+        return Problem.create(HttpStatus.BAD_REQUEST, "Unknown order status", ex.getMessage());
+    }
+
     @ExceptionHandler(ParseCsvException.class)
     public ProblemDetail resourceNotFoundException(ParseCsvException ex) {
         return Problem.create(HttpStatus.BAD_REQUEST, "Invalid CSV file", ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ProblemDetail resourceNotFoundException(InvalidCursorException ex) {
+        return Problem.create(HttpStatus.BAD_REQUEST, "Invalid cursor", ex.getMessage());
+    }
+
+    @ExceptionHandler({UploadTooLargeException.class, MaxUploadSizeExceededException.class})
+    public ProblemDetail resourceNotFoundException(RuntimeException ex) {
+        return Problem.create(HttpStatus.PAYLOAD_TOO_LARGE, "Upload too large", ex.getMessage());
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ProblemDetail resourceNotFoundException(PasswordHashingBusyException ex) {
+        return Problem.create(HttpStatus.SERVICE_UNAVAILABLE, "Service busy", ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ProblemDetail resourceNotFoundException(Exception ex) {
         var problemDetail = Problem.create(
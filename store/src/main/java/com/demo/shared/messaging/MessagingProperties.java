@@ -0,0 +1,20 @@
+package com.demo.shared.messaging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.messaging")
+public record MessagingProperties(
+        @DefaultValue Outbox outbox
+) {
+    public record Outbox(
+            @DefaultValue("PT0.5S") Duration pollInterval,
+            @DefaultValue("100") int batchSize,
+            @DefaultValue("PT5S") Duration confirmTimeout,
+            @DefaultValue("PT1S") Duration retryBackoff,
+            @DefaultValue("PT5M") Duration maxRetryBackoff,
+            @DefaultValue("20") int maxAttempts
+    ) { }
+}
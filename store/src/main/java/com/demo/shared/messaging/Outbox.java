@@ -0,0 +1,21 @@
+package com.demo.shared.messaging;
+
+import com.demo.shared.clock.Clock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// INFO -> Messages are stored in the transaction of the change they describe and published later by OutboxRelay,
+//  so a rollback never emits a message and a broker outage never fails the change itself
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+    private final OutboxRepository repository;
+    private final Clock clock;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String destination, String payload) {
+        repository.insert(destination, payload, clock.now());
+    }
+}
@@ -0,0 +1,165 @@
+package com.demo.shared.messaging;
+
+import com.demo.shared.clock.Clock;
+import com.demo.shared.messaging.OutboxRepository.OutboxMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// INFO -> Publishes outbox messages in batches. A batch is sent without waiting in between and then every publisher
+//  confirm is awaited against one deadline, so a batch costs about one broker round trip. Only rows the broker
+//  acked, and did not return as unroutable, are deleted; the rest are retried after an exponential backoff until
+//  they run out of attempts and are left in the table for inspection. A crash between the confirm and the commit
+//  publishes a message again, so delivery is at least once and the message id carries the outbox id for consumers
+//  to deduplicate.
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxRepository repository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessagingProperties.Outbox settings;
+    private final Clock clock;
+    private final Counter published;
+    private final Counter failed;
+    private final Counter exhausted;
+    private final Timer lag;
+    private boolean brokerUnreachable;
+
+    public OutboxRelay(
+            OutboxRepository repository,
+            RabbitTemplate rabbitTemplate,
+            TransactionTemplate transactionTemplate,
+            MessagingProperties properties,
+            Clock clock,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.settings = properties.outbox();
+        this.clock = clock;
+        this.published = meterRegistry.counter("messaging.outbox.published");
+        this.failed = meterRegistry.counter("messaging.outbox.failed");
+        this.exhausted = meterRegistry.counter("messaging.outbox.exhausted");
+        this.lag = meterRegistry.timer("messaging.outbox.lag");
+    }
+
+    // INFO -> Keeps draining while batches come back full, each batch in its own transaction. Once a send fails
+    //  the poll ends, so an unreachable broker costs one attempt per poll.
+    @Scheduled(fixedDelayString = "${app.messaging.outbox.poll-interval}")
+    public void relay() {
+        int batchSize = settings.batchSize();
+        BatchResult result;
+        do {
+            result = transactionTemplate.execute(status -> publishBatch(batchSize));
+        } while (result != null && result.locked() == batchSize && !result.sendFailed());
+    }
+
+    private BatchResult publishBatch(int batchSize) {
+        List<OutboxMessage> batch = repository.lockBatch(batchSize, clock.now(), settings.maxAttempts());
+        if (batch.isEmpty()) {
+            return new BatchResult(0, false);
+        }
+        var errors = new LinkedHashMap<Long, String>();
+        var sent = send(batch);
+        var confirmed = awaitConfirms(sent, errors);
+
+        var now = clock.now();
+        if (!confirmed.isEmpty()) {
+            repository.delete(confirmed.stream().map(OutboxMessage::id).toList());
+            confirmed.forEach(message -> lag.record(Duration.between(message.createdAt(), now)));
+            published.increment(confirmed.size());
+        }
+        if (!errors.isEmpty()) {
+            repository.recordFailures(errors, now, settings.retryBackoff(), settings.maxRetryBackoff());
+            failed.increment(errors.size());
+            var first = errors.entrySet().iterator().next();
+            log.warn(errors.size() + " outbox messages not published, first " + first.getKey() + ": " + first.getValue());
+            reportExhausted(batch, errors);
+        }
+        return new BatchResult(batch.size(), sent.size() < batch.size());
+    }
+
+    // INFO -> Once a send fails the connection is assumed to be down. The rest of the batch is not attempted and
+    //  none of it counts as a failed attempt, the rows are simply unlocked for the next poll. The outage is logged
+    //  when it starts and when it ends rather than on every poll.
+    private Map<OutboxMessage, CorrelationData> send(List<OutboxMessage> batch) {
+        var sent = new LinkedHashMap<OutboxMessage, CorrelationData>();
+        for (OutboxMessage message : batch) {
+            var correlation = new CorrelationData(String.valueOf(message.id()));
+            try {
+                rabbitTemplate.convertAndSend("", message.destination(), message.payload(), amqpMessage -> {
+                    amqpMessage.getMessageProperties().setMessageId("outbox-" + message.id());
+                    return amqpMessage;
+                }, correlation);
+                sent.put(message, correlation);
+            } catch (AmqpException ex) {
+                if (!brokerUnreachable) {
+                    brokerUnreachable = true;
+                    log.warn("Broker unreachable, outbox relay retries on the next polls: " + ex.getMessage());
+                }
+                return sent;
+            }
+        }
+        if (brokerUnreachable) {
+            brokerUnreachable = false;
+            log.info("Broker reachable again, outbox relay resumed");
+        }
+        return sent;
+    }
+
+    private void reportExhausted(List<OutboxMessage> batch, Map<Long, String> errors) {
+        for (OutboxMessage message : batch) {
+            String error = errors.get(message.id());
+            if (error != null && message.attempts() + 1 >= settings.maxAttempts()) {
+                exhausted.increment();
+                log.error("Outbox message " + message.id() + " to " + message.destination() + " given up after "
+                        + settings.maxAttempts() + " attempts: " + error);
+            }
+        }
+    }
+
+    private List<OutboxMessage> awaitConfirms(Map<OutboxMessage, CorrelationData> sent, Map<Long, String> errors) {
+        var confirmed = new ArrayList<OutboxMessage>();
+        long deadline = System.nanoTime() + settings.confirmTimeout().toNanos();
+        sent.forEach((message, correlation) -> {
+            try {
+                var confirm = correlation.getFuture().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (correlation.getReturned() != null) {
+                    errors.put(message.id(), "Unroutable: " + correlation.getReturned().getReplyText());
+                } else if (!confirm.isAck()) {
+                    errors.put(message.id(), "Nacked: " + confirm.getReason());
+                } else {
+                    confirmed.add(message);
+                }
+            } catch (TimeoutException ex) {
+                errors.put(message.id(), "Confirm timed out");
+            } catch (ExecutionException ex) {
+                errors.put(message.id(), "Confirm failed: " + ex.getCause().getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                errors.put(message.id(), "Interrupted");
+            }
+        });
+        return confirmed;
+    }
+
+    private record BatchResult(int locked, boolean sendFailed) { }
+}
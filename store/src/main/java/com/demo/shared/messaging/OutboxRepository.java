@@ -0,0 +1,93 @@
+package com.demo.shared.messaging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+    private static final String INSERT = """
+            INSERT INTO outbox_messages (destination, payload, created_at, next_attempt_at)
+            VALUES (?, ?, ?, ?)
+            """;
+    private static final String LOCK_BATCH = """
+            SELECT id, destination, payload, attempts, created_at FROM outbox_messages
+            WHERE next_attempt_at <= ? AND attempts < ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+    private static final String DELETE = """
+            DELETE FROM outbox_messages
+            WHERE id = ANY (?)
+            """;
+    private static final String RECORD_FAILURES = """
+            UPDATE outbox_messages
+            SET attempts = attempts + 1,
+                last_error = f.error,
+                next_attempt_at = ?::timestamp + least(?::int8 * power(2, attempts), ?::int8) * interval '1 millisecond'
+            FROM unnest(?::int8[], ?::varchar[]) AS f (id, error)
+            WHERE outbox_messages.id = f.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(String destination, String payload, LocalDateTime createdAt) {
+        jdbcTemplate.update(INSERT, destination, payload, createdAt, createdAt);
+    }
+
+    // INFO -> Rows locked by another relay are skipped, so several instances can drain the outbox side by side
+    //  without publishing the same message twice. The locks are held until the calling transaction ends. Rows
+    //  waiting out a backoff or out of attempts are left alone.
+    public List<OutboxMessage> lockBatch(int size, LocalDateTime now, int maxAttempts) {
+        return jdbcTemplate.query(
+                LOCK_BATCH,
+                (rs, rowNum) -> new OutboxMessage(
+                        rs.getLong("id"),
+                        rs.getString("destination"),
+                        rs.getString("payload"),
+                        rs.getInt("attempts"),
+                        rs.getTimestamp("created_at").toLocalDateTime()
+                ),
+                Timestamp.valueOf(now),
+                maxAttempts,
+                size
+        );
+    }
+
+    public void delete(Collection<Long> ids) {
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(DELETE);
+            ps.setArray(1, con.createArrayOf("int8", ids.toArray()));
+            return ps;
+        });
+    }
+
+    // INFO -> The next attempt is pushed back by the backoff doubled for every failed attempt so far, up to the
+    //  max backoff, so a message the broker keeps rejecting is retried less and less often
+    public void recordFailures(Map<Long, String> errors, LocalDateTime now, Duration backoff, Duration maxBackoff) {
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(RECORD_FAILURES);
+            ps.setTimestamp(1, Timestamp.valueOf(now));
+            ps.setLong(2, backoff.toMillis());
+            ps.setLong(3, maxBackoff.toMillis());
+            ps.setArray(4, con.createArrayOf("int8", errors.keySet().toArray()));
+            ps.setArray(5, con.createArrayOf("varchar", errors.values().stream().map(OutboxRepository::truncate).toArray()));
+            return ps;
+        });
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= 255 ? error : error.substring(0, 255);
+    }
+
+    public record OutboxMessage(long id, String destination, String payload, int attempts, LocalDateTime createdAt) { }
+}
@@ -0,0 +1,34 @@
+package com.demo.shared.web;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class Cursor {
+
+    public static final long START = 0L;
+
+    private static final String PREFIX = "id:";
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String token) {
+        if (StringUtils.isBlank(token)) {
+            return START;
+        }
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new InvalidCursorException(token);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.demo.shared.web;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String next) {
+
+    public static <T> CursorPage<T> of(List<T> rows, int size, ToLongFunction<T> idExtractor) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, false, null);
+        }
+        var content = rows.subList(0, size);
+        var next = Cursor.encode(idExtractor.applyAsLong(content.get(size - 1)));
+        return new CursorPage<>(content, size, true, next);
+    }
+
+    public <R> CursorPage<R> withContent(List<R> content) {
+        return new CursorPage<>(content, size, hasNext, next);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return withContent(content.stream().map(mapper).toList());
+    }
+}
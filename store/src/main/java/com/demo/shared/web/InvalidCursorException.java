@@ -0,0 +1,7 @@
+package com.demo.shared.web;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String token) {
+        super("Invalid cursor: " + token);
+    }
+}
@@ -0,0 +1,26 @@
+package com.demo.upload.application;
+
+import com.demo.upload.infrastructure.BlobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// INFO -> Deletes the file of a blob once the removal of its last reference has committed. The hash is claimed
+//  first, so a save of the same content that started in the meantime either keeps the file or waits until it is
+//  gone and then writes it again.
+@Component
+@RequiredArgsConstructor
+public class BlobCleaner {
+    private final BlobRepository blobRepository;
+    private final BlobStore blobStore;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void deleteIfUnreferenced(String key) {
+        if (!blobRepository.claimUnreferenced(key)) {
+            return;
+        }
+        blobStore.delete(key);
+        blobRepository.deleteUnreferenced(key);
+    }
+}
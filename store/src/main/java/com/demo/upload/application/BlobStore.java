@@ -0,0 +1,17 @@
+package com.demo.upload.application;
+
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+
+// INFO -> Stores upload content outside of the database. Keys are derived from the content, so storing the same
+//  bytes twice yields the same key and keeps a single copy.
+public interface BlobStore {
+    StagedBlob stage(InputStream content, long maxSize);
+
+    Resource get(String key);
+
+    boolean exists(String key);
+
+    void delete(String key);
+}
@@ -0,0 +1,91 @@
+package com.demo.upload.application;
+
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+@Component
+public class ImageResizer {
+    private final float quality;
+
+    public ImageResizer(UploadsProperties properties) {
+        this.quality = properties.variants().quality();
+    }
+
+    public Optional<BufferedImage> decode(InputStream in) {
+        try {
+            return Optional.ofNullable(ImageIO.read(in));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    // INFO -> Halves the image until it is close to the target before the last step, a single bilinear step
+    //  from a large cover down to a thumbnail drops most of the source pixels and aliases badly.
+    //  Images with transparency are kept as PNG, everything else is re-encoded as JPEG.
+    public ResizedImage resize(BufferedImage source, int width) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width) {
+            current = scale(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2), alpha);
+        }
+        BufferedImage resized = scale(current, width, height, alpha);
+        return alpha
+                ? new ResizedImage(encodePng(resized), "image/png")
+                : new ResizedImage(encodeJpeg(resized), "image/jpeg");
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        var scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        var out = new ByteArrayOutputStream();
+        try (var output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) {
+        var out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    public record ResizedImage(byte[] content, String contentType) { }
+}
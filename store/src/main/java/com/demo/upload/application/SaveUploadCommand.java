@@ -1,7 +1,9 @@
 package com.demo.upload.application;
 
+import java.io.InputStream;
+
 public record SaveUploadCommand(
         String filename,
-        byte[] file,
+        InputStream content,
         String contentType
 ) { }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.demo.upload.application;
+
+// INFO -> Content written to the blob store but not yet visible under its key. Closing discards it unless it was
+//  committed, key and size stay readable afterwards.
+public interface StagedBlob extends AutoCloseable {
+    String key();
+
+    long size();
+
+    void commit();
+
+    @Override
+    void close();
+}
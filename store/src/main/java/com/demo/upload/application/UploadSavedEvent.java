@@ -0,0 +1,3 @@
+package com.demo.upload.application;
+
+public record UploadSavedEvent(Long uploadId) { }
@@ -1,35 +1,147 @@
 package com.demo.upload.application;
 
 import com.demo.upload.domain.Upload;
+import com.demo.upload.domain.UploadMetadata;
+import com.demo.upload.domain.UploadVariant;
+import com.demo.upload.infrastructure.BlobRepository;
 import com.demo.upload.infrastructure.UploadRepository;
+import com.demo.upload.infrastructure.UploadStorageRepository;
+import com.demo.upload.infrastructure.UploadVariantRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class UploadService {
     private final UploadRepository repository;
+    private final UploadVariantRepository variantRepository;
+    private final UploadStorageRepository storageRepository;
+    private final BlobRepository blobRepository;
+    private final BlobStore blobStore;
+    private final BlobCleaner blobCleaner;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadsProperties properties;
 
+    @Transactional
     public Upload save(SaveUploadCommand command) {
-        Upload upload = new Upload(
-                command.filename(),
-                command.contentType(),
-                command.file()
-        );
+        StagedBlob blob = store(command.content());
+        Upload upload = new Upload(command.filename(), command.contentType(), blob.key(), blob.size());
         repository.save(upload);
+        eventPublisher.publishEvent(new UploadSavedEvent(upload.getId()));
         log.info("Upload saved: " + upload.getFilename() + " with id: " + upload.getId());
         return upload;
     }
 
-    public Optional<Upload> getById(Long id) {
-        return repository.findById(id);
+    public Optional<UploadMetadata> getMetadataById(Long id) {
+        return repository.findMetadataById(id);
     }
 
+    public Optional<UploadMetadata> getVariantMetadataById(Long id, int width) {
+        return variantRepository.findNearestMetadata(id, width);
+    }
+
+    // INFO -> A variant for the width may still appear only while generation is running and a configured width
+    //  could answer the request. Otherwise the original is what this width will always be served.
+    public boolean isVariantPending(Long uploadId, int width) {
+        return properties.variants().widths().stream().anyMatch(configured -> configured >= width)
+                && repository.findVariantsPendingById(uploadId).orElse(false);
+    }
+
+    @Transactional
+    public void finishVariants(Long uploadId) {
+        repository.finishVariantsById(uploadId);
+    }
+
+    public boolean hasVariant(Long uploadId, int width) {
+        return variantRepository.existsByUploadIdAndWidth(uploadId, width);
+    }
+
+    public Optional<UploadVariant> findSharedVariant(String storageKey, int width) {
+        return variantRepository.findSharedByStorageKeyAndWidth(storageKey, width);
+    }
+
+    @Transactional
+    public void saveVariant(Long uploadId, int width, String contentType, byte[] content) {
+        StagedBlob blob = store(new ByteArrayInputStream(content));
+        variantRepository.save(new UploadVariant(uploadId, width, contentType, blob.key(), blob.size()));
+    }
+
+    @Transactional
+    public void shareVariant(Long uploadId, UploadVariant variant) {
+        String key = variant.getStorageKey();
+        if (blobRepository.acquire(key, variant.getSize()) == 1 && !blobStore.exists(key)) {
+            throw new IllegalStateException("Blob " + key + " was removed");
+        }
+        variantRepository.save(new UploadVariant(uploadId, variant.getWidth(), variant.getContentType(), key, variant.getSize()));
+    }
+
+    public Resource getContent(UploadMetadata upload) {
+        if (upload.storageKey() == null) {
+            return storageRepository.findLegacyContent(upload.id(), upload.size());
+        }
+        return blobStore.get(upload.storageKey());
+    }
+
+    // INFO -> A blob goes away with the last upload or variant that uses it. Its row is deleted with the upload, but
+    //  the file only once the removal has committed, so a rollback leaves every row with its content. Keys are
+    //  released in order to keep lock acquisition consistent between removals. A file left behind when the
+    //  deletion fails only takes space, so the failure is logged.
+    @Transactional
     public void removeById(Long id) {
-        repository.deleteById(id);
+        Optional<String> storageKey = repository.findStorageKeyById(id);
+        List<String> variantKeys = variantRepository.findStorageKeysByUploadId(id);
+        variantRepository.deleteWithoutLoadingByUploadId(id);
+        repository.deleteWithoutLoadingById(id);
+        List<String> released = Stream.concat(variantKeys.stream(), storageKey.stream())
+                                      .sorted()
+                                      .filter(blobRepository::release)
+                                      .toList();
+        if (released.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                released.forEach(key -> {
+                    try {
+                        blobCleaner.deleteIfUnreferenced(key);
+                    } catch (RuntimeException ex) {
+                        log.warn("Unable to delete blob " + key + ": " + ex.getMessage());
+                    }
+                });
+            }
+        });
+    }
+
+    // INFO -> Moves content of uploads stored before the blob store out of the database, one batch per transaction
+    @Transactional
+    public int migrateLegacy(int limit) {
+        var uploads = storageRepository.findLegacy(limit);
+        uploads.forEach(upload -> storageRepository.moveToStorage(upload.id(), store(new ByteArrayInputStream(upload.file())).key()));
+        return uploads.size();
+    }
+
+    // INFO -> Content is streamed into a staged blob, hashed and size checked on the way, so an upload is never held
+    //  in memory. Identical content is stored once and shared through the reference count of its blob row. The
+    //  staged blob is committed while that row is locked, so it cannot race with removal of the last reference.
+    private StagedBlob store(InputStream content) {
+        try (StagedBlob blob = blobStore.stage(content, properties.maxSize().toBytes())) {
+            blobRepository.acquire(blob.key(), blob.size());
+            blob.commit();
+            return blob;
+        }
     }
 }
@@ -0,0 +1,33 @@
+package com.demo.upload.application;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "app.uploads.storage.migrate", havingValue = "true")
+public class UploadStorageMigration {
+    private final UploadService uploadService;
+    private final UploadsProperties properties;
+
+    // INFO -> Runs in the background after startup. Batches skip rows locked by other instances, so the migration
+    //  can be enabled on all of them at once and is simply resumed on the next start if interrupted.
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        int batchSize = properties.storage().migrationBatchSize();
+        int total = 0;
+        int migrated;
+        do {
+            migrated = uploadService.migrateLegacy(batchSize);
+            total += migrated;
+        } while (migrated == batchSize);
+        log.info("Uploads moved to blob store: " + total);
+    }
+}
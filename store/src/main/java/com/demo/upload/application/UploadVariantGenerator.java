@@ -0,0 +1,74 @@
+package com.demo.upload.application;
+
+import com.demo.upload.domain.UploadMetadata;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class UploadVariantGenerator {
+    private final UploadService uploadService;
+    private final ImageResizer resizer;
+    private final UploadsProperties properties;
+
+    // INFO -> Runs once the upload is committed, off the request thread. Widths the original is not wider than are
+    //  skipped, requests for them are served the original. The upload stops being pending even when some variant
+    //  could not be created, so it is not revalidated forever.
+    @Async
+    @TransactionalEventListener
+    public void onUploadSaved(UploadSavedEvent event) {
+        try {
+            uploadService.getMetadataById(event.uploadId())
+                         .filter(upload -> upload.contentType().startsWith("image/"))
+                         .ifPresent(this::generate);
+        } finally {
+            uploadService.finishVariants(event.uploadId());
+        }
+    }
+
+    // INFO -> Uploads sharing a blob, e.g. a placeholder cover used by many imported books, reuse variants that
+    //  already exist for it, so the original is only decoded when something actually has to be resized
+    private void generate(UploadMetadata upload) {
+        BufferedImage image = null;
+        for (int width : properties.variants().widths()) {
+            try {
+                if (uploadService.hasVariant(upload.id(), width)) {
+                    continue;
+                }
+                var shared = uploadService.findSharedVariant(upload.storageKey(), width);
+                if (shared.isPresent()) {
+                    uploadService.shareVariant(upload.id(), shared.get());
+                    continue;
+                }
+                if (image == null) {
+                    Optional<BufferedImage> decoded = decode(upload);
+                    if (decoded.isEmpty()) {
+                        return;
+                    }
+                    image = decoded.get();
+                }
+                if (width < image.getWidth()) {
+                    var resized = resizer.resize(image, width);
+                    uploadService.saveVariant(upload.id(), width, resized.contentType(), resized.content());
+                }
+            } catch (RuntimeException | IOException ex) {
+                log.warn("Unable to create variant " + width + " of upload " + upload.id(), ex);
+            }
+        }
+    }
+
+    private Optional<BufferedImage> decode(UploadMetadata upload) throws IOException {
+        try (InputStream in = uploadService.getContent(upload).getInputStream()) {
+            return resizer.decode(in);
+        }
+    }
+}
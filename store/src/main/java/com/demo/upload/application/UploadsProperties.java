@@ -0,0 +1,26 @@
+package com.demo.upload.application;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@ConfigurationProperties("app.uploads")
+public record UploadsProperties(
+        @DefaultValue("10MB") DataSize maxSize,
+        @DefaultValue Storage storage,
+        @DefaultValue Variants variants
+) {
+    public record Storage(
+            @DefaultValue("data/uploads") Path root,
+            boolean migrate,
+            @DefaultValue("20") int migrationBatchSize
+    ) { }
+
+    public record Variants(
+            @DefaultValue({"64", "256", "512"}) List<Integer> widths,
+            @DefaultValue("0.85") float quality
+    ) { }
+}
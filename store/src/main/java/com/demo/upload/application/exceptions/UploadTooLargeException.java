@@ -0,0 +1,7 @@
+package com.demo.upload.application.exceptions;
+
+public class UploadTooLargeException extends RuntimeException {
+    public UploadTooLargeException(long maxSize) {
+        super("Upload exceeds the limit of " + maxSize + " bytes");
+    }
+}
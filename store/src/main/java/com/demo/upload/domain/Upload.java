@@ -21,19 +21,31 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class Upload extends BaseEntity {
 
-    private byte[] file;
+    // INFO -> Key of the content in the blob store, null for uploads still waiting to be moved out of the database
+    @Column(length = 64)
+    private String storageKey;
 
     @Column(length = 5)
     private String contentType;
 
     private String filename;
 
+    @Column(nullable = false, updatable = false)
+    private long size;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
-    public Upload(String filename, String contentType, byte[] file) {
+    // INFO -> Set for images until UploadVariantGenerator is done with them, so requests for a width can tell a
+    //  variant that is still coming from one that will never exist
+    @Column(nullable = false)
+    private boolean variantsPending;
+
+    public Upload(String filename, String contentType, String storageKey, long size) {
         this.filename = filename;
         this.contentType = contentType;
-        this.file = file;
+        this.storageKey = storageKey;
+        this.size = size;
+        this.variantsPending = contentType != null && contentType.startsWith("image/");
     }
 }
@@ -0,0 +1,13 @@
+package com.demo.upload.domain;
+
+import java.time.LocalDateTime;
+
+public record UploadMetadata(
+        Long id,
+        String uuid,
+        String storageKey,
+        String contentType,
+        String filename,
+        LocalDateTime createdAt,
+        long size
+) { }
@@ -0,0 +1,48 @@
+package com.demo.upload.domain;
+
+import com.demo.shared.jpa.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "upload_variants")
+@Getter
+@Setter
+@NoArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class UploadVariant extends BaseEntity {
+
+    @Column(nullable = false, updatable = false)
+    private Long uploadId;
+
+    @Column(nullable = false, updatable = false)
+    private int width;
+
+    private String contentType;
+
+    @Column(length = 64, nullable = false, updatable = false)
+    private String storageKey;
+
+    @Column(nullable = false, updatable = false)
+    private long size;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    public UploadVariant(Long uploadId, int width, String contentType, String storageKey, long size) {
+        this.uploadId = uploadId;
+        this.width = width;
+        this.contentType = contentType;
+        this.storageKey = storageKey;
+        this.size = size;
+    }
+}
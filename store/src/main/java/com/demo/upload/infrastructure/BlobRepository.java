@@ -0,0 +1,55 @@
+package com.demo.upload.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class BlobRepository {
+    private static final String ACQUIRE = """
+            INSERT INTO blobs (hash, size, ref_count) VALUES (?, ?, 1)
+            ON CONFLICT (hash) DO UPDATE SET ref_count = blobs.ref_count + 1
+            RETURNING ref_count
+            """;
+    private static final String RELEASE = """
+            UPDATE blobs SET ref_count = ref_count - 1
+            WHERE hash = ?
+            RETURNING ref_count
+            """;
+    private static final String CLAIM = """
+            INSERT INTO blobs (hash, size, ref_count) VALUES (?, 0, 0)
+            ON CONFLICT (hash) DO NOTHING
+            """;
+    private static final String DELETE_UNREFERENCED = "DELETE FROM blobs WHERE hash = ? AND ref_count = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // INFO -> Both operations keep the blob row locked until commit, which serializes uploads sharing the content.
+    //  Returns the reference count after the upload was added.
+    public long acquire(String hash, long size) {
+        return jdbcTemplate.queryForObject(ACQUIRE, Long.class, hash, size);
+    }
+
+    // INFO -> Returns true when the last reference went away and the blob row was deleted
+    public boolean release(String hash) {
+        Long refCount = jdbcTemplate.queryForList(RELEASE, Long.class, hash)
+                                    .stream()
+                                    .findFirst()
+                                    .orElse(null);
+        if (refCount == null || refCount > 0) {
+            return false;
+        }
+        return deleteUnreferenced(hash);
+    }
+
+    // INFO -> Inserts an unreferenced row for a hash nobody uses, which makes a concurrent acquire of the same hash
+    //  wait until the calling transaction ends. Returns false when the hash is in use again.
+    public boolean claimUnreferenced(String hash) {
+        return jdbcTemplate.update(CLAIM, hash) > 0;
+    }
+
+    public boolean deleteUnreferenced(String hash) {
+        return jdbcTemplate.update(DELETE_UNREFERENCED, hash) > 0;
+    }
+}
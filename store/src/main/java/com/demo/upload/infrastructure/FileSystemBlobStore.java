@@ -0,0 +1,140 @@
+package com.demo.upload.infrastructure;
+
+import com.demo.upload.application.BlobStore;
+import com.demo.upload.application.StagedBlob;
+import com.demo.upload.application.UploadsProperties;
+import com.demo.upload.application.exceptions.UploadTooLargeException;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+// INFO -> Blobs are named by the SHA-256 of their content and spread over two levels of directories. Content is
+//  streamed into a staging file on the same filesystem, hashed on the way, synced and then renamed into place,
+//  so readers never see a partial blob and concurrent writers of the same content just replace it with identical
+//  bytes.
+@Component
+public class FileSystemBlobStore implements BlobStore {
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path staging;
+
+    public FileSystemBlobStore(UploadsProperties properties) {
+        this.root = properties.storage().root().toAbsolutePath();
+        this.staging = root.resolve("staging");
+    }
+
+    @Override
+    public StagedBlob stage(InputStream content, long maxSize) {
+        try {
+            Files.createDirectories(staging);
+            Path temp = Files.createTempFile(staging, "blob", ".tmp");
+            try {
+                MessageDigest digest = sha256();
+                long size = write(content, temp, digest, maxSize);
+                String key = HexFormat.of().formatHex(digest.digest());
+                return new FileStagedBlob(key, size, temp, path(key));
+            } catch (RuntimeException | IOException ex) {
+                Files.deleteIfExists(temp);
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to stage blob", ex);
+        }
+    }
+
+    @Override
+    public Resource get(String key) {
+        return new FileSystemResource(path(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(path(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(path(key));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to delete blob " + key, ex);
+        }
+    }
+
+    private Path path(String key) {
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static long write(InputStream content, Path path, MessageDigest digest, long maxSize) throws IOException {
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new UploadTooLargeException(maxSize);
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+            channel.force(true);
+        }
+        return size;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private record FileStagedBlob(String key, long size, Path temp, Path target) implements StagedBlob {
+
+        @Override
+        public void commit() {
+            try {
+                if (Files.exists(target)) {
+                    return;
+                }
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to store blob " + key, ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to discard staged blob " + key, ex);
+            }
+        }
+    }
+}
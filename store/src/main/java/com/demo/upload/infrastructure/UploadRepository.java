@@ -1,6 +1,36 @@
 package com.demo.upload.infrastructure;
 
 import com.demo.upload.domain.Upload;
+import com.demo.upload.domain.UploadMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface UploadRepository extends JpaRepository<Upload, Long> { }
+import java.util.Optional;
+
+public interface UploadRepository extends JpaRepository<Upload, Long> {
+
+    @Query("""
+            SELECT new com.demo.upload.domain.UploadMetadata(
+                u.id, u.uuid, u.storageKey, u.contentType, u.filename, u.createdAt, u.size
+            )
+            FROM Upload AS u
+            WHERE u.id = :id
+            """)
+    Optional<UploadMetadata> findMetadataById(@Param("id") Long id);
+
+    @Query("SELECT u.variantsPending FROM Upload AS u WHERE u.id = :id")
+    Optional<Boolean> findVariantsPendingById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Upload AS u SET u.variantsPending = false WHERE u.id = :id")
+    int finishVariantsById(@Param("id") Long id);
+
+    @Query("SELECT u.storageKey FROM Upload AS u WHERE u.id = :id")
+    Optional<String> findStorageKeyById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Upload AS u WHERE u.id = :id")
+    int deleteWithoutLoadingById(@Param("id") Long id);
+}
@@ -0,0 +1,138 @@
+package com.demo.upload.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.InputStream;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class UploadStorageRepository {
+    static final int CHUNK_SIZE = 256 * 1024;
+    private static final String READ_CHUNK = "SELECT substring(file FROM ? FOR ?) FROM uploads WHERE id = ?";
+    private static final String FIND_LEGACY = """
+            SELECT id, file FROM uploads
+            WHERE storage_key IS NULL
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+    private static final String MOVE_TO_STORAGE = """
+            UPDATE uploads SET storage_key = ?, file = NULL, version = version + 1
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // INFO -> Content of uploads stored before the blob store still lives in uploads.file. The driver materializes
+    //  a whole bytea value per row, so it is read in fixed size slices as the stream is consumed and skipping is free.
+    //  The values are stored out of line without compression, so a slice reads only its own part of the value.
+    public Resource findLegacyContent(long id, long size) {
+        return new AbstractResource() {
+            @Override
+            public InputStream getInputStream() {
+                return new LegacyContentInputStream(id, size);
+            }
+
+            @Override
+            public long contentLength() {
+                return size;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Upload [" + id + "]";
+            }
+        };
+    }
+
+    public List<LegacyUpload> findLegacy(int limit) {
+        return jdbcTemplate.query(
+                FIND_LEGACY,
+                (rs, rowNum) -> new LegacyUpload(rs.getLong("id"), rs.getBytes("file")),
+                limit
+        );
+    }
+
+    public void moveToStorage(long id, String storageKey) {
+        jdbcTemplate.update(MOVE_TO_STORAGE, storageKey, id);
+    }
+
+    private byte[] readChunk(long id, long position, int size) {
+        return jdbcTemplate.queryForList(READ_CHUNK, byte[].class, Math.toIntExact(position + 1), size, id)
+                           .stream()
+                           .findFirst()
+                           .orElse(null);
+    }
+
+    public record LegacyUpload(long id, byte[] file) { }
+
+    private final class LegacyContentInputStream extends InputStream {
+        private final long id;
+        private final long size;
+        private long position;
+        private long chunkStart;
+        private byte[] chunk = new byte[0];
+
+        private LegacyContentInputStream(long id, long size) {
+            this.id = id;
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return chunk[(int) (position++ - chunkStart)] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int from = (int) (position - chunkStart);
+            int count = Math.min(length, chunk.length - from);
+            System.arraycopy(chunk, from, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            long skipped = Math.max(0, Math.min(count, size - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            long buffered = chunkStart + chunk.length - position;
+            return buffered > 0 ? (int) buffered : 0;
+        }
+
+        private boolean fill() {
+            if (position >= chunkStart && position < chunkStart + chunk.length) {
+                return true;
+            }
+            if (position >= size) {
+                return false;
+            }
+            byte[] next = readChunk(id, position, (int) Math.min(CHUNK_SIZE, size - position));
+            if (next == null || next.length == 0) {
+                return false;
+            }
+            chunk = next;
+            chunkStart = position;
+            return true;
+        }
+    }
+}
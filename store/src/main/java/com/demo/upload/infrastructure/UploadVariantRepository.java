@@ -0,0 +1,48 @@
+package com.demo.upload.infrastructure;
+
+import com.demo.upload.domain.UploadMetadata;
+import com.demo.upload.domain.UploadVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadVariantRepository extends JpaRepository<UploadVariant, Long> {
+
+    // INFO -> Smallest variant that is at least as wide as requested, so clients never scale an image up
+    @Query("""
+            SELECT new com.demo.upload.domain.UploadMetadata(
+                u.id, v.uuid, v.storageKey, v.contentType, u.filename, v.createdAt, v.size
+            )
+            FROM UploadVariant AS v
+            JOIN Upload AS u ON u.id = v.uploadId
+            WHERE v.uploadId = :uploadId AND v.width >= :width
+            ORDER BY v.width
+            LIMIT 1
+            """)
+    Optional<UploadMetadata> findNearestMetadata(@Param("uploadId") Long uploadId, @Param("width") int width);
+
+    boolean existsByUploadIdAndWidth(Long uploadId, int width);
+
+    @Query("""
+            SELECT v FROM UploadVariant AS v
+            JOIN Upload AS u ON u.id = v.uploadId
+            WHERE u.storageKey = :storageKey AND v.width = :width
+            ORDER BY v.id
+            LIMIT 1
+            """)
+    Optional<UploadVariant> findSharedByStorageKeyAndWidth(
+            @Param("storageKey") String storageKey,
+            @Param("width") int width
+    );
+
+    @Query("SELECT v.storageKey FROM UploadVariant AS v WHERE v.uploadId = :uploadId")
+    List<String> findStorageKeysByUploadId(@Param("uploadId") Long uploadId);
+
+    @Modifying
+    @Query("DELETE FROM UploadVariant AS v WHERE v.uploadId = :uploadId")
+    int deleteWithoutLoadingByUploadId(@Param("uploadId") Long uploadId);
+}
@@ -0,0 +1,39 @@
+package com.demo.upload.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.File;
+import java.io.IOException;
+
+// INFO -> When these request attributes are set and the response has no body, Tomcat sends the file with
+//  sendfile once the handler returns, straight from the page cache to the socket without copying it through
+//  the heap. Range requests and other containers keep going through Spring's resource handling.
+final class Sendfile {
+    private static final String SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String START = "org.apache.tomcat.sendfile.start";
+    private static final String END = "org.apache.tomcat.sendfile.end";
+
+    private Sendfile() { }
+
+    static boolean offer(HttpServletRequest request, Resource resource) {
+        if (!Boolean.TRUE.equals(request.getAttribute(SUPPORT))
+                || !HttpMethod.GET.matches(request.getMethod())
+                || request.getHeader(HttpHeaders.RANGE) != null
+                || !resource.isFile()) {
+            return false;
+        }
+        try {
+            File file = resource.getFile();
+            request.setAttribute(FILENAME, file.getAbsolutePath());
+            request.setAttribute(START, 0L);
+            request.setAttribute(END, file.length());
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.demo.upload.web;
 
 import com.demo.upload.application.UploadResponse;
 import com.demo.upload.application.UploadService;
+import com.demo.upload.domain.UploadMetadata;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -9,27 +10,40 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/uploads")
 @AllArgsConstructor
 @Tag(name = "Uploads", description = "Upload covers API")
 class UploadController {
+    // INFO -> Uploads are never modified, a new cover is always stored under a new id, so clients and proxies
+    //  can keep a file for as long as they like without revalidating it
+    private static final CacheControl FILE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+                                                                       .cachePublic()
+                                                                       .immutable();
+
     private final UploadService upload;
 
     @Operation(
             summary = "Get upload",
-            description = "Get upload by id"
+            description = "Get upload file by id, or its nearest resized variant at least w pixels wide"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -59,13 +73,13 @@ class UploadController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<UploadResponse> getUpload(@PathVariable Long id) {
-        return upload.getById(id)
+        return upload.getMetadataById(id)
                      .map(file -> {
                          UploadResponse response = new UploadResponse(
-                                 file.getId(),
-                                 file.getContentType(),
-                                 file.getFilename(),
-                                 file.getCreatedAt()
+                                 file.id(),
+                                 file.contentType(),
+                                 file.filename(),
+                                 file.createdAt()
                          );
                          return ResponseEntity.ok(response);
                      })
@@ -74,7 +88,7 @@ class UploadController {
 
     @Operation(
             summary = "Get upload",
-            description = "Get upload by id"
+            description = "Get upload file by id, or its nearest resized variant at least w pixels wide"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -84,6 +98,18 @@ class UploadController {
                             mediaType = "application/octet-stream"
                     )
             ),
+            @ApiResponse(
+                    responseCode = "206",
+                    description = "get requested byte ranges of uploaded file",
+                    content = @Content(
+                            mediaType = "application/octet-stream"
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "File not modified since the version identified by If-None-Match",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Resource not found",
@@ -92,6 +118,11 @@ class UploadController {
                             schema = @Schema(implementation = ProblemDetail.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "416",
+                    description = "Requested range not satisfiable",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
@@ -102,16 +133,44 @@ class UploadController {
             )
     })
     @GetMapping("/{id}/file")
-    public ResponseEntity<Resource> getUploadFile(@PathVariable Long id) {
-        return upload.getById(id)
+    public ResponseEntity<Resource> getUploadFile(
+            @PathVariable Long id,
+            @RequestParam(required = false, name = "w") Optional<Integer> width,
+            ServletWebRequest request
+    ) {
+        Optional<UploadMetadata> variant = width.flatMap(w -> upload.getVariantMetadataById(id, w));
+        // INFO -> While a fitting variant is still being generated the original is served revalidated on every use,
+        //  so the variant replaces it once it exists. When no variant will ever fit, e.g. the width is larger than
+        //  any configured one, the image is not wider than it or the upload is no image, the original is final.
+        boolean pending = width.isPresent() && variant.isEmpty() && upload.isVariantPending(id, width.get());
+        CacheControl cacheControl = pending ? CacheControl.noCache() : FILE_CACHE_CONTROL;
+        return variant.or(() -> upload.getMetadataById(id))
                      .map(file -> {
-                         String contentDisposition = "attachment; filename=\"" + file.getFilename() + "\"";
-                         Resource resource = new ByteArrayResource(file.getFile());
-                         return ResponseEntity
+                         String etag = "\"" + file.uuid() + "\"";
+                         long lastModified = file.createdAt()
+                                                 .atZone(ZoneId.systemDefault())
+                                                 .toInstant()
+                                                 .toEpochMilli();
+                         // INFO -> Writes ETag and Last-Modified to the response in both cases and switches it to 304
+                         //  when the client copy is current, before any content is read
+                         if (request.checkNotModified(etag, lastModified)) {
+                             return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                                  .cacheControl(cacheControl)
+                                                  .<Resource>build();
+                         }
+                         String contentDisposition = "attachment; filename=\"" + file.filename() + "\"";
+                         Resource resource = upload.getContent(file);
+                         var response = ResponseEntity
                                  .ok()
                                  .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
-                                 .contentType(MediaType.parseMediaType(file.getContentType()))
-                                 .body(resource);
+                                 .contentType(MediaType.parseMediaType(file.contentType()))
+                                 .cacheControl(cacheControl);
+                         if (Sendfile.offer(request.getRequest(), resource)) {
+                             return response.header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                                            .contentLength(file.size())
+                                            .<Resource>build();
+                         }
+                         return response.body(resource);
                      })
                      .orElse(ResponseEntity.notFound().build());
     }
@@ -1,8 +1,9 @@
 package com.demo.users.application;
 
 import com.demo.security.JwtService;
+import com.demo.security.UserVersions;
 import com.demo.shared.JsonConverter;
-import com.demo.shared.messaging.RabbitMqConfig;
+import com.demo.shared.messaging.Outbox;
 import com.demo.users.application.responses.ChangePasswordResponse;
 import com.demo.users.application.responses.LoginDto;
 import com.demo.users.application.responses.LoginResponse;
@@ -13,7 +14,7 @@ import com.demo.users.domain.User;
 import com.demo.users.infrastructure.UserRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -28,7 +29,11 @@ public class UserService {
     private final PasswordEncoder encoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
-    private final RabbitTemplate rabbitTemplate;
+    private final Outbox outbox;
+    private final UserVersions userVersions;
+
+    @Value("${rabbitmq.queue.notification}")
+    private String notificationQueue;
 
     @Transactional
     public RegisterResponse register(String email, String password) throws JsonProcessingException {
@@ -42,8 +47,8 @@ public class UserService {
                          .build();
         var savedUser = userRepository.save(entity);
 
-        rabbitTemplate.convertAndSend(
-                RabbitMqConfig.QUEUE_NAME,
+        outbox.enqueue(
+                notificationQueue,
                 JsonConverter.toJson(new UserRegistrationPayload(savedUser.getId(), savedUser.getEmail()))
         );
 
@@ -57,6 +62,7 @@ public class UserService {
             return LoginResponse.failure("User not found");
         }
         var token = jwtService.generateToken(user.get());
+        userVersions.update(user.get());
         return LoginResponse.success(new LoginDto(token));
     }
 
@@ -66,6 +72,8 @@ public class UserService {
             return ChangePasswordResponse.failure("User not found");
         }
         user.get().setPassword(encoder.encode(password));
-        return ChangePasswordResponse.success(userRepository.save(user.get()));
+        var savedUser = userRepository.save(user.get());
+        userVersions.update(savedUser);
+        return ChangePasswordResponse.success(savedUser);
     }
 }
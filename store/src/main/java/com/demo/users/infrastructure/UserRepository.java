@@ -2,10 +2,22 @@ package com.demo.users.infrastructure;
 
 import com.demo.users.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String username);
+
+    @Query("SELECT u.version FROM User AS u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // INFO -> Leaves the version alone, so a rehash with a stronger cost does not revoke issued tokens
+    @Transactional
+    @Modifying
+    @Query("UPDATE User AS u SET u.password = :password WHERE u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("password") String password);
 }
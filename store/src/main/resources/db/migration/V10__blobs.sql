@@ -0,0 +1,16 @@
+create table if not exists blobs
+(
+    hash       varchar(64) primary key,
+    size       int8 not null,
+    ref_count  int8 not null,
+    created_at timestamp default now() not null
+);
+
+insert into blobs (hash, size, ref_count)
+select storage_key, max(size), count(*)
+from uploads
+where storage_key is not null
+group by storage_key
+on conflict (hash) do nothing;
+
+alter table uploads add constraint fk_uploads_blob foreign key (storage_key) references blobs (hash);
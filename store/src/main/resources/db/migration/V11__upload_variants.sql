@@ -0,0 +1,19 @@
+create sequence upload_variants_seq;
+create table if not exists upload_variants
+(
+    id           bigserial primary key,
+    uuid         varchar(36) not null,
+    version      int8 not null,
+    upload_id    int8 not null,
+    width        int4 not null,
+    content_type varchar(50) not null,
+    storage_key  varchar(64) not null,
+    size         int8 not null,
+    created_at   timestamp default now() not null
+);
+create unique index if not exists idx_upload_variants_uuid on upload_variants (uuid);
+create unique index if not exists idx_upload_variants_upload_id_width on upload_variants (upload_id, width);
+create index if not exists idx_upload_variants_storage_key on upload_variants (storage_key);
+alter table upload_variants add constraint fk_upload_variants_uploads foreign key (upload_id) references uploads;
+alter table upload_variants add constraint fk_upload_variants_blobs foreign key (storage_key) references blobs (hash);
+alter table upload_variants alter column id set default nextval('upload_variants_seq');
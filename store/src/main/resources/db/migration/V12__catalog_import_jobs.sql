@@ -0,0 +1,34 @@
+create sequence catalog_import_jobs_seq;
+create table if not exists catalog_import_jobs
+(
+    id               bigserial primary key,
+    uuid             varchar(36) not null,
+    version          int8 not null,
+    status           varchar(20) not null,
+    filename         varchar(255),
+    file             varchar(255) not null,
+    header           text[] not null,
+    rows_parsed      int8 default 0 not null,
+    rows_inserted    int8 default 0 not null,
+    rows_skipped     int8 default 0 not null,
+    rows_failed      int8 default 0 not null,
+    committed_offset int8 default 0 not null,
+    error            varchar(255),
+    started_at       timestamp not null,
+    updated_at       timestamp not null,
+    finished_at      timestamp
+);
+create unique index if not exists idx_catalog_import_jobs_uuid on catalog_import_jobs (uuid);
+create index if not exists idx_catalog_import_jobs_running on catalog_import_jobs (id) where status = 'RUNNING';
+alter table catalog_import_jobs alter column id set default nextval('catalog_import_jobs_seq');
+
+create table if not exists catalog_import_rejects
+(
+    id         bigserial primary key,
+    job_id     int8 not null,
+    row_number int8 not null,
+    reason     varchar(255) not null,
+    record     text[] not null
+);
+create index if not exists idx_catalog_import_rejects_job_id_row_number on catalog_import_rejects (job_id, row_number);
+alter table catalog_import_rejects add constraint fk_catalog_import_rejects_jobs foreign key (job_id) references catalog_import_jobs on delete cascade;
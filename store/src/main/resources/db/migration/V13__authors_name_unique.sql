@@ -0,0 +1,19 @@
+update authors
+set name = regexp_replace(btrim(name), '\s+', ' ', 'g')
+where name <> regexp_replace(btrim(name), '\s+', ' ', 'g');
+
+create temporary table author_duplicates as
+select id, keeper_id
+from (select id, min(id) over (partition by lower(name)) as keeper_id from authors) a
+where id <> keeper_id;
+
+insert into books_authors (books_id, authors_id)
+select ba.books_id, d.keeper_id
+from books_authors ba
+join author_duplicates d on d.id = ba.authors_id
+on conflict do nothing;
+delete from books_authors where authors_id in (select id from author_duplicates);
+delete from authors where id in (select id from author_duplicates);
+drop table author_duplicates;
+
+create unique index if not exists idx_authors_name_lower on authors (lower(name));
@@ -0,0 +1,9 @@
+create table if not exists outbox_messages
+(
+    id          bigserial primary key,
+    destination varchar(255) not null,
+    payload     text not null,
+    attempts    int4 default 0 not null,
+    last_error  varchar(255),
+    created_at  timestamp not null
+);
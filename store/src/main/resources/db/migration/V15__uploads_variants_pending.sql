@@ -0,0 +1 @@
+alter table uploads add column if not exists variants_pending boolean default false not null;
@@ -0,0 +1,4 @@
+alter table outbox_messages add column if not exists next_attempt_at timestamp;
+update outbox_messages set next_attempt_at = created_at where next_attempt_at is null;
+alter table outbox_messages alter column next_attempt_at set not null;
+create index if not exists idx_outbox_messages_next_attempt_at on outbox_messages (next_attempt_at);
@@ -0,0 +1 @@
+update uploads set file = file || ''::bytea where file is not null and pg_column_compression(file) is not null;
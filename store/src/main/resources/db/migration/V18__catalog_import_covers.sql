@@ -0,0 +1,12 @@
+alter table catalog_import_jobs add column if not exists covers_stored int8 default 0 not null;
+alter table catalog_import_jobs add column if not exists covers_failed int8 default 0 not null;
+
+create table if not exists catalog_import_covers
+(
+    book_id int8 primary key,
+    job_id  int8 not null,
+    url     text not null
+);
+create index if not exists idx_catalog_import_covers_job_id on catalog_import_covers (job_id);
+alter table catalog_import_covers add constraint fk_catalog_import_covers_jobs foreign key (job_id) references catalog_import_jobs on delete cascade;
+alter table catalog_import_covers add constraint fk_catalog_import_covers_books foreign key (book_id) references books on delete cascade;
@@ -0,0 +1,5 @@
+create extension if not exists pg_trgm;
+
+create index if not exists idx_books_title_trgm on books using gin (lower(title) gin_trgm_ops);
+create index if not exists idx_authors_name_trgm on authors using gin (lower(name) gin_trgm_ops);
+create index if not exists idx_books_authors_authors_id on books_authors (authors_id);
@@ -0,0 +1,3 @@
+alter table orders add column if not exists stock_pending boolean not null default false;
+
+create index if not exists idx_orders_stock_pending on orders (id) where stock_pending;
@@ -0,0 +1,5 @@
+create index if not exists idx_orders_new_created_at on orders (created_at) where status = 'NEW';
+create index if not exists idx_orders_status_id on orders (status, id);
+create index if not exists idx_orders_recipient_id on orders (recipient_id);
+create index if not exists idx_order_items_order_id on order_items (order_id);
+create index if not exists idx_order_items_book_id on order_items (book_id);
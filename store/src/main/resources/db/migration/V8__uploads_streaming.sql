@@ -0,0 +1,5 @@
+alter table uploads add column if not exists size int8;
+update uploads set size = octet_length(file) where size is null;
+alter table uploads alter column size set not null;
+
+alter table uploads alter column file set storage external;
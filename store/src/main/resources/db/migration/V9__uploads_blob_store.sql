@@ -0,0 +1,5 @@
+alter table uploads add column if not exists storage_key varchar(64);
+alter table uploads alter column file drop not null;
+
+create index if not exists idx_uploads_storage_key on uploads (storage_key);
+create index if not exists idx_uploads_legacy on uploads (id) where storage_key is null;
@@ -0,0 +1,239 @@
+package com.demo.catalog.application;
+
+import com.demo.catalog.application.commands.UpdateBookCommand;
+import com.demo.catalog.application.commands.UpdateBookCoverCommand;
+import com.demo.catalog.application.exceptions.AuthorNotFoundException;
+import com.demo.catalog.application.responses.CatalogDto;
+import com.demo.catalog.domain.Author;
+import com.demo.catalog.domain.Book;
+import com.demo.catalog.infrastructure.BookRepository;
+import com.demo.catalog.web.BookRequestParams;
+import com.demo.order.application.placeOrder.commands.OrderItemCommand;
+import com.demo.order.application.placeOrder.commands.PlaceOrderCommand;
+import com.demo.order.application.services.ManipulateOrderService;
+import com.demo.order.domain.Recipient;
+import com.demo.order.infrastructure.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+@SpringBootTest(
+        webEnvironment = NONE,
+        properties = {
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+                "app.uploads.storage.root=target/test-uploads"
+        }
+)
+@Testcontainers
+public class CatalogServiceCacheTests extends BaseContainerTests {
+    private static final BookRequestParams FIRST_PAGE = new BookRequestParams(
+            Optional.empty(),
+            Optional.empty(),
+            Optional.of(1),
+            Optional.of(10)
+    );
+
+    @Autowired
+    CatalogService catalogService;
+    @Autowired
+    ManipulateOrderService manipulateOrderService;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Book book;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    // INFO -> Both the single book and the first page are read once, so each test starts with them cached
+    @BeforeEach
+    void setUp() {
+        cache(CatalogCache.BOOK).clear();
+        cache(CatalogCache.BOOKS).clear();
+        var newBook = new Book("Spring in Action", 2022, BigDecimal.TEN, 5L);
+        newBook.addAuthor(new Author("Craig Walls"));
+        book = bookRepository.saveAndFlush(newBook);
+        catalogService.findById(book.getId());
+        catalogService.findAll(FIRST_PAGE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM books_authors");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM authors");
+        jdbcTemplate.update("DELETE FROM uploads");
+        jdbcTemplate.update("DELETE FROM blobs");
+    }
+
+    @Test
+    void findByIdAndFindAllShouldServeCachedBooks() {
+        // Arrange
+        changeTitleBehindCache();
+
+        // Act
+        var found = catalogService.findById(book.getId());
+        var page = catalogService.findAll(FIRST_PAGE);
+
+        // Assert
+        assertThat(found).map(Book::getTitle).contains("Spring in Action");
+        assertThat(page.getContent()).extracting(CatalogDto::getTitle).containsExactly("Spring in Action");
+    }
+
+    @Test
+    void updateBookShouldEvictCachedBooks() {
+        // Act
+        catalogService.updateBook(UpdateBookCommand.builder().id(book.getId()).title("Spring in Action 7").build());
+
+        // Assert
+        assertThat(catalogService.findById(book.getId())).map(Book::getTitle).contains("Spring in Action 7");
+        assertThat(catalogService.findAll(FIRST_PAGE).getContent())
+                .extracting(CatalogDto::getTitle)
+                .containsExactly("Spring in Action 7");
+    }
+
+    @Test
+    void removeByIdShouldEvictCachedBooks() {
+        // Act
+        catalogService.removeById(book.getId());
+
+        // Assert
+        assertThat(catalogService.findById(book.getId())).isEmpty();
+        assertThat(catalogService.findAll(FIRST_PAGE).getContent()).isEmpty();
+    }
+
+    @Test
+    void updateBookCoverShouldEvictCachedBooks() {
+        // Arrange
+        var command = new UpdateBookCoverCommand(
+                book.getId(),
+                new ByteArrayInputStream("cover".getBytes()),
+                "text/plain",
+                "cover.txt"
+        );
+
+        // Act
+        catalogService.updateBookCover(command);
+
+        // Assert
+        assertThat(catalogService.findById(book.getId())).map(Book::getCoverId).isPresent();
+        assertThat(catalogService.findAll(FIRST_PAGE).getContent())
+                .extracting(CatalogDto::getCoverId)
+                .doesNotContainNull();
+    }
+
+    @Test
+    void placeOrderShouldEvictCachedBooksOnlyAfterCommit() {
+        // Act
+        boolean cachedBeforeCommit = transactionTemplate.execute(status -> {
+            manipulateOrderService.placeOrder(placeOrderCommand(2));
+            return cache(CatalogCache.BOOK).get(book.getId()) != null;
+        });
+
+        // Assert
+        assertThat(cachedBeforeCommit).isTrue();
+        assertThat(cache(CatalogCache.BOOK).get(book.getId())).isNull();
+        assertThat(catalogService.findById(book.getId())).map(Book::getAvailable).contains(3L);
+        assertThat(catalogService.findAll(FIRST_PAGE).getContent())
+                .extracting(CatalogDto::getAvailable)
+                .containsExactly(3L);
+    }
+
+    @Test
+    void rolledBackOrderShouldLeaveCachedBooksIntact() {
+        // Arrange
+        changeTitleBehindCache();
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            manipulateOrderService.placeOrder(placeOrderCommand(2));
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertThat(catalogService.findById(book.getId())).map(Book::getTitle).contains("Spring in Action");
+        assertThat(catalogService.findAll(FIRST_PAGE).getContent())
+                .extracting(CatalogDto::getTitle, CatalogDto::getAvailable)
+                .containsExactly(tuple("Spring in Action", 5L));
+    }
+
+    @Test
+    void rolledBackUpdateShouldLeaveCachedBooksIntact() {
+        // Arrange
+        changeTitleBehindCache();
+        var command = UpdateBookCommand.builder().id(book.getId()).title("Spring in Action 7").authors(Set.of(-1L)).build();
+
+        // Act & Assert
+        assertThatThrownBy(() -> catalogService.updateBook(command)).isInstanceOf(AuthorNotFoundException.class);
+        assertThat(catalogService.findById(book.getId())).map(Book::getTitle).contains("Spring in Action");
+        assertThat(catalogService.findAll(FIRST_PAGE).getContent())
+                .extracting(CatalogDto::getTitle)
+                .containsExactly("Spring in Action");
+        assertThat(bookRepository.findById(book.getId())).map(Book::getTitle).contains("Changed behind the cache");
+    }
+
+    // INFO -> Reads that still return the old title come from the cache, a new read would see the change
+    private void changeTitleBehindCache() {
+        jdbcTemplate.update("UPDATE books SET title = 'Changed behind the cache' WHERE id = ?", book.getId());
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private PlaceOrderCommand placeOrderCommand(int quantity) {
+        var recipient = Recipient.builder()
+                                 .email("buyer@mail.com")
+                                 .name("Buyer")
+                                 .city("New York")
+                                 .zipCode("12345")
+                                 .build();
+        return PlaceOrderCommand.builder()
+                                .items(List.of(new OrderItemCommand(book.getId(), quantity)))
+                                .recipient(recipient)
+                                .build();
+    }
+}
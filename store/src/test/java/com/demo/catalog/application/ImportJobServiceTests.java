@@ -0,0 +1,439 @@
+package com.demo.catalog.application;
+
+import com.demo.catalog.application.exceptions.ParseCsvException;
+import com.demo.catalog.application.responses.CatalogDto;
+import com.demo.catalog.application.responses.ImportJobResponse;
+import com.demo.catalog.domain.Author;
+import com.demo.catalog.domain.Book;
+import com.demo.catalog.domain.ImportJob;
+import com.demo.catalog.domain.ImportJobStatus;
+import com.demo.catalog.infrastructure.AuthorRepository;
+import com.demo.catalog.infrastructure.ImportJobRepository;
+import com.demo.catalog.web.BookRequestParams;
+import com.demo.shared.clock.Clock;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+@SpringBootTest(
+        webEnvironment = NONE,
+        properties = {
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+                "app.uploads.storage.root=target/test-uploads",
+                "app.catalog.importing.directory=target/test-imports",
+                "app.catalog.importing.chunk-size=2"
+        }
+)
+@Testcontainers
+public class ImportJobServiceTests extends BaseContainerTests {
+
+    private static HttpServer covers;
+
+    @Autowired
+    ImportJobService importJobService;
+    @Autowired
+    CatalogService catalogService;
+    @Autowired
+    ImportJobRepository importJobRepository;
+    @Autowired
+    AuthorRepository authorRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    Clock clock;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    // INFO -> Serves the same bytes for every cover, so imported books share a single blob
+    @BeforeAll
+    static void startCovers() throws IOException {
+        covers = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        covers.createContext("/covers/", exchange -> {
+            byte[] body = "not really an image".getBytes();
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        covers.start();
+    }
+
+    @AfterAll
+    static void stopCovers() {
+        covers.stop(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("ALTER TABLE books DROP CONSTRAINT IF EXISTS books_title_not_banned");
+        jdbcTemplate.update("DELETE FROM catalog_import_jobs");
+        jdbcTemplate.update("DELETE FROM books_authors");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM authors");
+        jdbcTemplate.update("DELETE FROM uploads");
+        jdbcTemplate.update("DELETE FROM blobs");
+    }
+
+    @Test
+    void submitShouldImportBooksInChunksWithSharedAuthors() throws Exception {
+        // Arrange
+        authorRepository.save(new Author("Craig Walls"));
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Spring in Action,\"Craig Walls\",2022,39.99," + coverUrl(1),
+                "Spring Boot in Action,\"craig walls, Jane Doe\",2016,29.99," + coverUrl(2),
+                "Java Persistence,\"JANE DOE\",2015,49.99," + coverUrl(3)
+        );
+
+        // Act
+        var job = importJobService.submit(csvFile, "books.csv");
+
+        // Assert
+        var finished = awaitFinished(job.getId());
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.rowsParsed()).isEqualTo(3);
+        assertThat(finished.rowsInserted()).isEqualTo(3);
+        assertThat(finished.coversStored()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM books WHERE cover_id IS NOT NULL", Long.class))
+                .isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM catalog_import_covers", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM authors ORDER BY name", String.class))
+                .containsExactly("Craig Walls", "Jane Doe");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM books_authors", Long.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM blobs", Long.class)).isEqualTo(1);
+        assertThat(Path.of(importJobRepository.findById(job.getId()).orElseThrow().getFile())).doesNotExist();
+    }
+
+    @Test
+    void submitShouldMatchAuthorsIgnoringCaseAndWhitespace() throws Exception {
+        // Arrange
+        authorRepository.save(new Author("Joshua Bloch"));
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Effective Java,\"  joshua   BLOCH \",2018,44.99," + coverUrl(1),
+                "Java Puzzlers,\"Joshua Bloch, Neal  Gafter\",2005,34.99," + coverUrl(2),
+                "Java Generics,\"neal gafter\",2006,29.99," + coverUrl(3)
+        );
+
+        // Act
+        var job = importJobService.submit(csvFile, "books.csv");
+
+        // Assert
+        var finished = awaitFinished(job.getId());
+        assertThat(finished.rowsInserted()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM authors ORDER BY name", String.class))
+                .containsExactly("Joshua Bloch", "Neal Gafter");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM books_authors", Long.class)).isEqualTo(4);
+    }
+
+    @Test
+    void submitShouldRejectInvalidRowsWithoutFailingOthers() throws Exception {
+        // Arrange
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Spring in Action,Craig Walls,2022,39.99," + coverUrl(1),
+                "Missing thumbnail,Jane Doe,2020,9.99,",
+                "A title that is much longer than the fifty characters allowed,Jane Doe,2020,9.99," + coverUrl(2),
+                "Bad year,Jane Doe,soon,9.99," + coverUrl(3),
+                "Java Persistence,Jane Doe,2015,49.99," + coverUrl(4)
+        );
+
+        // Act
+        var job = importJobService.submit(csvFile, "books.csv");
+
+        // Assert
+        var finished = awaitFinished(job.getId());
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.rowsParsed()).isEqualTo(5);
+        assertThat(finished.rowsInserted()).isEqualTo(2);
+        assertThat(finished.rowsSkipped()).isEqualTo(1);
+        assertThat(finished.rowsFailed()).isEqualTo(2);
+        var rejects = new ByteArrayOutputStream();
+        importJobService.writeRejects(job.getId(), rejects);
+        assertThat(rejects.toString().lines()).containsExactly(
+                "title,authors,year,amount,thumbnail,row,error",
+                "Missing thumbnail,Jane Doe,2020,9.99,,2,Missing required value",
+                "A title that is much longer than the fifty characters allowed,Jane Doe,2020,9.99," + coverUrl(2)
+                        + ",3,Title longer than 50 characters",
+                "Bad year,Jane Doe,soon,9.99," + coverUrl(3) + ",4,Invalid year or amount"
+        );
+    }
+
+    @Test
+    void submitShouldRetryChunkRowByRowWhenDatabaseRejectsRow() throws Exception {
+        // Arrange
+        jdbcTemplate.update("ALTER TABLE books ADD CONSTRAINT books_title_not_banned CHECK (title <> 'Banned Book')");
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Spring in Action,Craig Walls,2022,39.99," + coverUrl(1),
+                "Banned Book,Jane Doe,2020,9.99," + coverUrl(2),
+                "Java Persistence,Jane Doe,2015,49.99," + coverUrl(3)
+        );
+
+        // Act
+        var job = importJobService.submit(csvFile, "books.csv");
+
+        // Assert
+        var finished = awaitFinished(job.getId());
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.rowsParsed()).isEqualTo(3);
+        assertThat(finished.rowsInserted()).isEqualTo(2);
+        assertThat(finished.rowsFailed()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT title FROM books ORDER BY title", String.class))
+                .containsExactly("Java Persistence", "Spring in Action");
+        var rejects = new ByteArrayOutputStream();
+        importJobService.writeRejects(job.getId(), rejects);
+        assertThat(rejects.toString())
+                .startsWith("title,authors,year,amount,thumbnail,row,error\nBanned Book,Jane Doe,2020,9.99," + coverUrl(2) + ",2,")
+                .contains("books_title_not_banned");
+    }
+
+    @Test
+    void submitShouldEvictCachedBookOnceItsCoverIsStored() throws Exception {
+        // Arrange
+        var coverRequested = new CountDownLatch(1);
+        var releaseCover = new CountDownLatch(1);
+        covers.createContext("/delayed/", exchange -> {
+            coverRequested.countDown();
+            awaitQuietly(releaseCover);
+            byte[] body = "delayed cover".getBytes();
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Spring in Action,Craig Walls,2022,39.99,http://localhost:" + covers.getAddress().getPort() + "/delayed/1.jpg"
+        );
+        var firstPage = new BookRequestParams(Optional.empty(), Optional.empty(), Optional.of(1), Optional.of(10));
+
+        // Act
+        var job = importJobService.submit(csvFile, "books.csv");
+        assertThat(coverRequested.await(10, TimeUnit.SECONDS)).isTrue();
+        long bookId = jdbcTemplate.queryForObject("SELECT id FROM books", Long.class);
+        var cachedBook = catalogService.findById(bookId);
+        var cachedPage = catalogService.findAll(firstPage);
+        releaseCover.countDown();
+        awaitFinished(job.getId());
+
+        // Assert
+        assertThat(cachedBook).map(Book::getCoverId).isEmpty();
+        assertThat(cachedPage.getContent()).extracting(CatalogDto::getCoverId).containsOnlyNulls();
+        assertThat(catalogService.findById(bookId)).map(Book::getCoverId).isPresent();
+        assertThat(catalogService.findAll(firstPage).getContent()).extracting(CatalogDto::getCoverId).doesNotContainNull();
+    }
+
+    @Test
+    void submitShouldKeepBookWhenCoverCannotBeFetched() throws Exception {
+        // Arrange
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Spring in Action,Craig Walls,2022,39.99,http://localhost:" + covers.getAddress().getPort() + "/missing"
+        );
+
+        // Act
+        var job = importJobService.submit(csvFile, "books.csv");
+
+        // Assert
+        var finished = awaitFinished(job.getId());
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.rowsInserted()).isEqualTo(1);
+        assertThat(finished.coversStored()).isZero();
+        assertThat(finished.coversFailed()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT cover_id FROM books", Long.class)).containsExactly((Long) null);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM catalog_import_covers", Long.class)).isZero();
+    }
+
+    @Test
+    void submitShouldCompleteJobOnlyOnceItsCoversAreDone() throws Exception {
+        // Arrange
+        var coverRequested = new CountDownLatch(1);
+        var releaseCover = new CountDownLatch(1);
+        covers.createContext("/held/", exchange -> {
+            coverRequested.countDown();
+            awaitQuietly(releaseCover);
+            byte[] body = "held cover".getBytes();
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Spring in Action,Craig Walls,2022,39.99,http://localhost:" + covers.getAddress().getPort() + "/held/1.jpg"
+        );
+
+        // Act
+        var job = importJobService.submit(csvFile, "books.csv");
+        ImportJobResponse whileFetching;
+        try {
+            assertThat(coverRequested.await(10, TimeUnit.SECONDS)).isTrue();
+            await().during(Duration.ofMillis(500))
+                   .atMost(Duration.ofSeconds(5))
+                   .until(() -> importJobService.findById(job.getId()).orElseThrow().status() == ImportJobStatus.RUNNING);
+            whileFetching = importJobService.findById(job.getId()).orElseThrow();
+        } finally {
+            releaseCover.countDown();
+            covers.removeContext("/held/");
+        }
+        var finished = awaitFinished(job.getId());
+
+        // Assert
+        assertThat(whileFetching.status()).isEqualTo(ImportJobStatus.RUNNING);
+        assertThat(whileFetching.rowsInserted()).isEqualTo(1);
+        assertThat(whileFetching.coversStored()).isZero();
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.coversStored()).isEqualTo(1);
+    }
+
+    @Test
+    void submitShouldRejectFileWithoutRequiredColumns() throws Exception {
+        // Arrange
+        var csvFile = csv("title,authors,year", "Spring in Action,Craig Walls,2022");
+
+        // Act & Assert
+        assertThatThrownBy(() -> importJobService.submit(csvFile, "books.csv"))
+                .isInstanceOf(ParseCsvException.class)
+                .hasMessageContaining("amount, thumbnail");
+        assertThat(importJobRepository.count()).isZero();
+    }
+
+    @Test
+    void resumeShouldContinueAfterCommittedOffset() throws Exception {
+        // Arrange
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Spring in Action,Craig Walls,2022,39.99," + coverUrl(1),
+                "Spring Boot in Action,Craig Walls,2016,29.99," + coverUrl(2),
+                "Java Persistence,Jane Doe,2015,49.99," + coverUrl(3)
+        );
+        var header = new String[]{"title", "authors", "year", "amount", "thumbnail"};
+        var job = importJobRepository.save(new ImportJob("books.csv", csvFile.toString(), header, clock.now()));
+        jdbcTemplate.update(
+                "UPDATE catalog_import_jobs SET rows_parsed = 2, rows_inserted = 2, committed_offset = 2 WHERE id = ?",
+                job.getId()
+        );
+
+        // Act
+        importJobService.resume();
+
+        // Assert
+        var finished = awaitFinished(job.getId());
+        assertThat(finished.rowsParsed()).isEqualTo(3);
+        assertThat(finished.rowsInserted()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT title FROM books", String.class)).containsExactly("Java Persistence");
+    }
+
+    // INFO -> The first two rows were committed before the crash, the cover of the first book was still pending
+    //  while the second one had already been given up
+    @Test
+    void resumeShouldFetchCoversLeftPendingBeforeRestart() throws Exception {
+        // Arrange
+        var csvFile = csv(
+                "title,authors,year,amount,thumbnail",
+                "Spring in Action,Craig Walls,2022,39.99," + coverUrl(1),
+                "Spring Boot in Action,Craig Walls,2016,29.99," + coverUrl(2),
+                "Java Persistence,Jane Doe,2015,49.99," + coverUrl(3)
+        );
+        var header = new String[]{"title", "authors", "year", "amount", "thumbnail"};
+        var job = importJobRepository.save(new ImportJob("books.csv", csvFile.toString(), header, clock.now()));
+        jdbcTemplate.update(
+                "UPDATE catalog_import_jobs SET rows_parsed = 2, rows_inserted = 2, committed_offset = 2, covers_failed = 1 WHERE id = ?",
+                job.getId()
+        );
+        long pendingBook = insertBook("Spring in Action");
+        long failedBook = insertBook("Spring Boot in Action");
+        jdbcTemplate.update(
+                "INSERT INTO catalog_import_covers (job_id, book_id, url) VALUES (?, ?, ?)",
+                job.getId(), pendingBook, coverUrl(1)
+        );
+
+        // Act
+        importJobService.resume();
+
+        // Assert
+        var finished = awaitFinished(job.getId());
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.rowsInserted()).isEqualTo(3);
+        assertThat(finished.coversStored()).isEqualTo(2);
+        assertThat(finished.coversFailed()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT title FROM books WHERE cover_id IS NOT NULL ORDER BY id", String.class))
+                .containsExactly("Spring in Action", "Java Persistence");
+        assertThat(jdbcTemplate.queryForObject("SELECT cover_id FROM books WHERE id = ?", Long.class, failedBook)).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM catalog_import_covers", Long.class)).isZero();
+    }
+
+    private ImportJobResponse awaitFinished(Long jobId) {
+        await().atMost(Duration.ofSeconds(10))
+               .until(() -> importJobService.findById(jobId).orElseThrow().status() != ImportJobStatus.RUNNING);
+        return importJobService.findById(jobId).orElseThrow();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long insertBook(String title) {
+        return jdbcTemplate.queryForObject(
+                """
+                INSERT INTO books (uuid, version, title, year, price, available)
+                VALUES (gen_random_uuid()::varchar, 0, ?, 2020, 10, 50)
+                RETURNING id
+                """,
+                Long.class,
+                title
+        );
+    }
+
+    private String coverUrl(int id) {
+        return "http://localhost:" + covers.getAddress().getPort() + "/covers/" + id + ".jpg";
+    }
+
+    private Path csv(String... lines) throws IOException {
+        var file = Files.createTempFile("catalog-import", ".csv");
+        return Files.write(file, String.join("\n", lines).getBytes());
+    }
+}
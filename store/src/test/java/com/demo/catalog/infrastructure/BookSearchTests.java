@@ -0,0 +1,224 @@
+package com.demo.catalog.infrastructure;
+
+import com.demo.catalog.application.responses.CatalogDto;
+import com.demo.catalog.domain.Author;
+import com.demo.catalog.domain.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+@SpringBootTest(
+        webEnvironment = NONE,
+        properties = {
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970"
+        }
+)
+@Testcontainers
+public class BookSearchTests extends BaseContainerTests {
+
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    // INFO -> Books are saved from the weakest to the best match, so a ranking that fell back to the id order
+    //  would list them the other way round
+    @BeforeEach
+    void setUp() {
+        var craigWalls = new Author("Craig Walls");
+        var janeDoe = new Author("Jane Doe");
+        bookRepository.saveAllAndFlush(List.of(
+                book("Spring Boot in Action Second Edition", janeDoe),
+                book("Microservices with Spring", new Author("John Doeman")),
+                book("Spring in Action", craigWalls, janeDoe),
+                book("Spring", craigWalls),
+                book("Effective Java", new Author("Joshua Bloch")),
+                book("Spring without authors")
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM books_authors");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM authors");
+    }
+
+    @Test
+    void searchByTitleShouldRankCloserTitlesFirst() {
+        // Act
+        var page = bookRepository.searchByTitle(PageRequest.of(0, 10), "SPRING");
+
+        // Assert
+        assertThat(page.getContent())
+                .extracting(CatalogDto::getTitle)
+                .containsExactly("Spring", "Spring in Action", "Microservices with Spring", "Spring Boot in Action Second Edition");
+    }
+
+    @Test
+    void searchByTitleShouldCountOnlyBooksListedOnPages() {
+        // Act
+        var first = bookRepository.searchByTitle(PageRequest.of(0, 2), "spring");
+        var second = bookRepository.searchByTitle(PageRequest.of(1, 2), "spring");
+
+        // Assert
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(second.getTotalElements()).isEqualTo(4);
+        assertThat(first.getContent()).extracting(CatalogDto::getTitle).containsExactly("Spring", "Spring in Action");
+        assertThat(second.getContent())
+                .extracting(CatalogDto::getTitle)
+                .containsExactly("Microservices with Spring", "Spring Boot in Action Second Edition");
+    }
+
+    @Test
+    void searchByAuthorShouldRankCloserNamesFirstAndKeepAllAuthorsOfBook() {
+        // Act
+        var page = bookRepository.searchByAuthor(PageRequest.of(0, 10), "doe");
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent())
+                .extracting(CatalogDto::getTitle)
+                .containsExactly("Spring Boot in Action Second Edition", "Spring in Action", "Microservices with Spring");
+        assertThat(page.getContent().get(1).getAuthors()).containsExactlyInAnyOrder("Craig Walls", "Jane Doe");
+    }
+
+    @Test
+    void searchByAuthorShouldCountBookMatchedByManyAuthorsOnce() {
+        // Act
+        var books = collectPages(number -> bookRepository.searchByAuthor(PageRequest.of(number, 2), "a"));
+
+        // Assert
+        assertThat(books).extracting(CatalogDto::getId).doesNotHaveDuplicates().hasSize(5);
+        assertThat(books)
+                .filteredOn(book -> book.getTitle().equals("Spring in Action"))
+                .singleElement()
+                .extracting(CatalogDto::getAuthors)
+                .asList()
+                .containsExactlyInAnyOrder("Craig Walls", "Jane Doe");
+    }
+
+    @Test
+    void searchByTitleAndAuthorShouldApplyBothFiltersAndRankBySum() {
+        // Act
+        var page = bookRepository.searchByTitleAndAuthor(PageRequest.of(0, 10), "action", "doe");
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent())
+                .extracting(CatalogDto::getTitle)
+                .containsExactly("Spring in Action", "Spring Boot in Action Second Edition");
+        assertThat(page.getContent().get(0).getAuthors()).containsExactlyInAnyOrder("Craig Walls", "Jane Doe");
+    }
+
+    // INFO -> With seq scans disabled the planner still finds a plan without the expected index, e.g. a full scan
+    //  of the primary key with a filter, so each search filter is checked for the index it is meant to use
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT id FROM books WHERE lower(title) LIKE lower(concat('%', 'spring', '%')) | idx_books_title_trgm",
+            "SELECT id FROM authors WHERE lower(name) LIKE lower(concat('%', 'walls', '%')) | idx_authors_name_trgm",
+            "SELECT books_id FROM books_authors WHERE authors_id = 1 | idx_books_authors_authors_id"
+    })
+    void searchFiltersShouldUseIndexes(String query, String index) {
+        // Act
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return explain(query);
+        });
+
+        // Assert
+        assertThat(plan).contains(index);
+    }
+
+    @Test
+    void authorSearchShouldFindBooksThroughNameAndJoinTableIndexes() {
+        // Arrange
+        String query = """
+                SELECT b.id, array_agg(a.name) authors
+                FROM books b
+                INNER JOIN books_authors ba ON b.id = ba.books_id
+                LEFT JOIN authors a ON ba.authors_id = a.id
+                WHERE EXISTS (
+                    SELECT 1
+                    FROM books_authors sba
+                    INNER JOIN authors sa ON sba.authors_id = sa.id
+                    WHERE sba.books_id = b.id AND lower(sa.name) LIKE lower(concat('%', 'walls', '%'))
+                )
+                GROUP BY b.id
+                ORDER BY max(similarity(lower(a.name), lower('walls'))) DESC, b.id
+                LIMIT 10
+                """;
+
+        // Act
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return explain(query);
+        });
+
+        // Assert
+        assertThat(plan).contains("idx_authors_name_trgm", "idx_books_authors_authors_id");
+    }
+
+    // INFO -> Follows the pages the way a client would, a count above the listed books would add empty pages
+    private List<CatalogDto> collectPages(IntFunction<Page<CatalogDto>> search) {
+        var books = new ArrayList<CatalogDto>();
+        Page<CatalogDto> page;
+        int number = 0;
+        do {
+            page = search.apply(number++);
+            books.addAll(page.getContent());
+        } while (page.hasNext());
+        assertThat(page.getTotalElements()).isEqualTo(books.size());
+        return books;
+    }
+
+    private Book book(String title, Author... authors) {
+        var book = new Book(title, 2022, BigDecimal.TEN, 5L);
+        for (Author author : authors) {
+            book.addAuthor(author);
+        }
+        return book;
+    }
+
+    private String explain(String query) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+    }
+}
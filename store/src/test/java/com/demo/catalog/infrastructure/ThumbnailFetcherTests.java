@@ -0,0 +1,253 @@
+package com.demo.catalog.infrastructure;
+
+import com.demo.catalog.application.CatalogProperties;
+import com.demo.catalog.application.exceptions.ThumbnailFetchException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ThumbnailFetcherTests {
+
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private ThumbnailFetcher fetcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        fetcher = fetcher(Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetchShouldReturnContentAndType() {
+        // Arrange
+        server.createContext("/cover.jpg", exchange -> respond(exchange, 200, new byte[100], false));
+
+        // Act
+        var thumbnail = fetcher.fetch(url("/cover.jpg"));
+
+        // Assert
+        assertThat(thumbnail.content()).hasSize(100);
+        assertThat(thumbnail.contentType()).isEqualTo("image/jpeg");
+        assertThat(meterRegistry.summary("catalog.thumbnails.size").totalAmount()).isEqualTo(100);
+        assertThat(meterRegistry.timer("catalog.thumbnails.fetch", "outcome", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchShouldRetryServerErrors() {
+        // Arrange
+        var calls = new AtomicInteger();
+        server.createContext("/cover.jpg", exchange -> {
+            int status = calls.getAndIncrement() == 0 ? 503 : 200;
+            respond(exchange, status, new byte[10], false);
+        });
+
+        // Act
+        var thumbnail = fetcher.fetch(url("/cover.jpg"));
+
+        // Assert
+        assertThat(thumbnail.content()).hasSize(10);
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.counter("catalog.thumbnails.retries").count()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchShouldNotRetryClientErrors() {
+        // Arrange
+        var calls = new AtomicInteger();
+        server.createContext("/cover.jpg", exchange -> {
+            calls.incrementAndGet();
+            respond(exchange, 404, new byte[0], false);
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> fetcher.fetch(url("/cover.jpg")))
+                .isInstanceOf(ThumbnailFetchException.class)
+                .hasMessageContaining("status 404");
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.timer("catalog.thumbnails.fetch", "outcome", "failure").count()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchShouldRejectDeclaredLengthAboveMaxSize() {
+        // Arrange
+        server.createContext("/cover.jpg", exchange -> respond(exchange, 200, new byte[2048], false));
+
+        // Act & Assert
+        assertThatThrownBy(() -> fetcher.fetch(url("/cover.jpg")))
+                .isInstanceOf(ThumbnailFetchException.class)
+                .hasMessageContaining("larger than 1024 bytes");
+    }
+
+    @Test
+    void fetchShouldNotDownloadBodyWhenDeclaredLengthIsAboveMaxSize() {
+        // Arrange
+        var calls = new AtomicInteger();
+        server.createContext("/cover.jpg", exchange -> {
+            calls.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(200, 1L << 30);
+            try (var out = exchange.getResponseBody()) {
+                for (int i = 0; i < 100; i++) {
+                    out.write(new byte[100]);
+                    out.flush();
+                    sleep(100);
+                }
+            } catch (IOException ignored) {
+                // INFO -> The client closes the connection instead of reading the body
+            }
+        });
+        long start = System.nanoTime();
+
+        // Act & Assert
+        assertThatThrownBy(() -> fetcher.fetch(url("/cover.jpg")))
+                .isInstanceOf(ThumbnailFetchException.class)
+                .hasMessageContaining("larger than 1024 bytes");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void fetchShouldRejectChunkedBodyAboveMaxSize() {
+        // Arrange
+        server.createContext("/cover.jpg", exchange -> respond(exchange, 200, new byte[64 * 1024], true));
+
+        // Act & Assert
+        assertThatThrownBy(() -> fetcher.fetch(url("/cover.jpg")))
+                .isInstanceOf(ThumbnailFetchException.class)
+                .hasMessageContaining("larger than 1024 bytes");
+    }
+
+    @Test
+    void fetchShouldGiveUpOnSlowHost() {
+        // Arrange
+        fetcher = fetcher(Duration.ofMillis(200));
+        var calls = new AtomicInteger();
+        server.createContext("/cover.jpg", exchange -> {
+            calls.incrementAndGet();
+            sleep(1000);
+            respond(exchange, 200, new byte[10], false);
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> fetcher.fetch(url("/cover.jpg")))
+                .isInstanceOf(ThumbnailFetchException.class)
+                .hasMessageContaining("timed out");
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void fetchShouldLimitConcurrentRequestsPerHost() throws Exception {
+        // Arrange
+        var active = new AtomicInteger();
+        var peak = new AtomicInteger();
+        server.createContext("/cover.jpg", exchange -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            sleep(50);
+            active.decrementAndGet();
+            respond(exchange, 200, new byte[10], false);
+        });
+        var tasks = new ArrayList<Callable<ThumbnailFetcher.Thumbnail>>();
+        for (int i = 0; i < 12; i++) {
+            tasks.add(() -> fetcher.fetch(url("/cover.jpg")));
+        }
+
+        // Act
+        var executor = Executors.newFixedThreadPool(12);
+        var results = executor.invokeAll(tasks);
+        executor.shutdown();
+
+        // Assert
+        for (var result : results) {
+            assertThat(result.get().content()).hasSize(10);
+        }
+        assertThat(peak.get()).isEqualTo(2);
+    }
+
+    @Test
+    void fetchShouldReleaseHostPermitWhileBackingOff() throws Exception {
+        // Arrange
+        fetcher = fetcher(Duration.ofSeconds(5), Duration.ofSeconds(2));
+        var failures = new AtomicInteger();
+        server.createContext("/failing.jpg", exchange -> {
+            failures.incrementAndGet();
+            respond(exchange, 503, new byte[0], false);
+        });
+        server.createContext("/cover.jpg", exchange -> respond(exchange, 200, new byte[10], false));
+        var executor = Executors.newFixedThreadPool(2);
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> fetcher.fetch(url("/failing.jpg")));
+        }
+        while (failures.get() < 2) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        long start = System.nanoTime();
+        var thumbnail = fetcher.fetch(url("/cover.jpg"));
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+        executor.shutdownNow();
+
+        // Assert
+        assertThat(thumbnail.content()).hasSize(10);
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(1));
+    }
+
+    private ThumbnailFetcher fetcher(Duration timeout) {
+        return fetcher(timeout, Duration.ofMillis(10));
+    }
+
+    private ThumbnailFetcher fetcher(Duration timeout, Duration backoff) {
+        var properties = new CatalogProperties(
+                new CatalogProperties.Import(Path.of("target/test-imports"), 1000, 8),
+                new CatalogProperties.Thumbnails(
+                        Duration.ofSeconds(1), timeout, DataSize.ofKilobytes(1), 2, 2, backoff));
+        return new ThumbnailFetcher(properties, meterRegistry);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body, boolean chunked) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+        exchange.sendResponseHeaders(status, chunked ? 0 : body.length == 0 ? -1 : body.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException ignored) {
+            // INFO -> The client closes the connection once the body is over the limit
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,15 +2,19 @@ package com.demo.catalog.web;
 
 import com.demo.catalog.domain.Author;
 import com.demo.catalog.domain.Book;
+import com.demo.catalog.infrastructure.AuthorRepository;
 import com.demo.catalog.infrastructure.BookRepository;
 import com.demo.security.JwtService;
 import com.demo.users.domain.Role;
 import com.demo.users.domain.User;
 import com.demo.users.infrastructure.UserRepository;
 import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
@@ -22,8 +26,13 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import utils.BaseContainerTests;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
 
 @SpringBootTest(
         webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
@@ -44,6 +53,8 @@ public class CatalogControllerTests extends BaseContainerTests {
     @Autowired
     private BookRepository bookRepository;
     @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
     private JwtService jwtService;
 
     @DynamicPropertySource
@@ -71,6 +82,7 @@ public class CatalogControllerTests extends BaseContainerTests {
     void tearDown() {
         userRepository.deleteAll();
         bookRepository.deleteAll();
+        authorRepository.deleteAll();
     }
 
     @Test
@@ -93,8 +105,92 @@ public class CatalogControllerTests extends BaseContainerTests {
                 .statusCode(HttpStatus.ACCEPTED.value());
     }
 
+    @Test
+    void getAllAfterShouldReturnEveryBookOnceWhenFollowingNext() {
+        // Arrange
+        var craigWalls = new Author("Craig Walls");
+        var books = bookRepository.saveAllAndFlush(List.of(
+                book("Spring in Action", craigWalls),
+                book("Spring Boot in Action", craigWalls),
+                book("Spring Security in Action", new Author("Laurentiu Spilca")),
+                book("Modern Java in Action", new Author("Raoul-Gabriel Urma")),
+                book("Effective Java", new Author("Joshua Bloch"))
+        ));
+
+        // Act
+        var ids = followNext(Map.of());
+
+        // Assert
+        assertThat(ids).containsExactlyElementsOf(books.stream().map(Book::getId).toList());
+    }
+
+    @Test
+    void getAllAfterShouldApplyTitleAndAuthorFiltersOnEveryPage() {
+        // Arrange
+        var craigWalls = new Author("Craig Walls");
+        var books = bookRepository.saveAllAndFlush(List.of(
+                book("Spring in Action", craigWalls),
+                book("Spring Security in Action", new Author("Laurentiu Spilca")),
+                book("Java Persistence with Spring", craigWalls),
+                book("Modern Java in Action", craigWalls),
+                book("Spring Microservices in Action", new Author("John Carnell"), craigWalls)
+        ));
+
+        // Act
+        var ids = followNext(Map.of("title", "SPRING", "author", "walls"));
+
+        // Assert
+        assertThat(ids).containsExactly(books.get(0).getId(), books.get(2).getId(), books.get(4).getId());
+    }
+
+    // INFO -> Text that is not base64, a cursor with a non-numeric or overflowing id and one without the id prefix
+    @ParameterizedTest
+    @ValueSource(strings = {"not-a-cursor!", "aWQ6YWJj", "aWQ6OTk5OTk5OTk5OTk5OTk5OTk5OTk", "cGFnZToy"})
+    void getAllAfterShouldReturn400WhenCursorIsInvalid(String after) {
+        // Act & Assert
+        given()
+                .queryParam("after", after)
+        .when()
+                .get("/books")
+        .then()
+                .log().body()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("title", is("Invalid cursor"));
+    }
+
     // INFO -> Rest of the tests are omitted
 
+    // INFO -> Pages of two are requested until next is empty, a repeated page would show up as a duplicate id
+    private List<Long> followNext(Map<String, ?> filters) {
+        var ids = new ArrayList<Long>();
+        String after = "";
+        do {
+            JsonPath page = given()
+                    .queryParams(filters)
+                    .queryParam("after", after)
+                    .queryParam("pageSize", 2)
+            .when()
+                    .get("/books")
+            .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract()
+                    .jsonPath();
+            ids.addAll(page.getList("content.id", Long.class));
+            after = page.getString("next");
+            assertThat(page.getBoolean("hasNext")).isEqualTo(after != null);
+            assertThat(ids).doesNotHaveDuplicates();
+        } while (after != null);
+        return ids;
+    }
+
+    private Book book(String title, Author... authors) {
+        var book = new Book(title, 2021, new BigDecimal("10.00"), 1L);
+        for (Author author : authors) {
+            book.addAuthor(author);
+        }
+        return book;
+    }
+
     private User createAdmin() {
         var admin = User.builder()
                         .email("admin@mail.com")
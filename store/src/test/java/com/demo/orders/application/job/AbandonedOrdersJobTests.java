@@ -45,6 +45,7 @@ import static org.springframework.boot.test.context.SpringBootTest.WebEnvironmen
         properties = {
                 "app.orders.abandon-cron=*/3 * * * * *",
                 "app.orders.payment-period=1H",
+                "app.orders.abandon-chunk-size=2",
                 "jwt.expiration=300000",
                 "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970"
         }
@@ -110,6 +111,24 @@ public class AbandonedOrdersJobTests extends BaseContainerTests {
         var updatedOrder = orderRepository.findById(order.getId()).orElseThrow();
         assertThat(updatedOrder.getStatus()).isEqualTo(OrderStatus.ABANDONED);
     }
+
+    @Test
+    void runJobShouldRestoreStockOfAllAbandonedOrders() {
+        // Arrange
+        var book = bookRepository.saveAndFlush(createBook());
+        for (int i = 0; i < 5; i++) {
+            orderRepository.saveAndFlush(createOrder(book, createRecipient()));
+        }
+
+        // Act
+        fakeClock.tick(ofHours(2));
+        abandonedOrdersJob.run();
+
+        // Assert
+        assertThat(orderRepository.findAll()).allMatch(order -> order.getStatus() == OrderStatus.ABANDONED);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailable()).isEqualTo(105L);
+    }
+
     private Author createAuthor() {
         return new Author("J. R. R. Tolkien");
     }
@@ -0,0 +1,133 @@
+package com.demo.orders.application.services;
+
+import com.demo.catalog.domain.Book;
+import com.demo.catalog.infrastructure.BookRepository;
+import com.demo.order.application.exceptions.OutOfStockException;
+import com.demo.order.application.placeOrder.commands.OrderItemCommand;
+import com.demo.order.application.placeOrder.commands.PlaceOrderCommand;
+import com.demo.order.application.placeOrder.responses.PlaceOrderResponse;
+import com.demo.order.application.services.ManipulateOrderService;
+import com.demo.order.domain.Recipient;
+import com.demo.order.infrastructure.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+@SpringBootTest(
+        webEnvironment = NONE,
+        properties = {
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970"
+        }
+)
+@Testcontainers
+public class ManipulateOrderServiceStockTests extends BaseContainerTests {
+
+    @Autowired
+    ManipulateOrderService manipulateOrderService;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    BookRepository bookRepository;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void placeOrderShouldRejectWholeOrderWhenAnyBookIsOutOfStock() {
+        // Arrange
+        var first = bookRepository.saveAndFlush(new Book("First", 2001, BigDecimal.TEN, 5L));
+        var second = bookRepository.saveAndFlush(new Book("Second", 2002, BigDecimal.TEN, 1L));
+        var command = placeOrderCommand(0, List.of(
+                new OrderItemCommand(first.getId(), 2),
+                new OrderItemCommand(second.getId(), 2)
+        ));
+
+        // Act & Assert
+        assertThatThrownBy(() -> manipulateOrderService.placeOrder(command))
+                .isInstanceOf(OutOfStockException.class)
+                .hasMessageContaining("book " + second.getId());
+        assertThat(bookRepository.findById(first.getId()).orElseThrow().getAvailable()).isEqualTo(5L);
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    @Test
+    void concurrentOrdersShouldNotOversellHotBook() throws Exception {
+        // Arrange
+        var book = bookRepository.saveAndFlush(new Book("Hot", 2023, BigDecimal.TEN, 10L));
+        var tasks = new ArrayList<Callable<PlaceOrderResponse>>();
+        for (int i = 0; i < 30; i++) {
+            var command = placeOrderCommand(i, List.of(new OrderItemCommand(book.getId(), 1)));
+            tasks.add(() -> manipulateOrderService.placeOrder(command));
+        }
+
+        // Act
+        var executor = Executors.newFixedThreadPool(8);
+        List<Future<PlaceOrderResponse>> results = executor.invokeAll(tasks);
+        executor.shutdown();
+
+        // Assert
+        int placed = 0;
+        int outOfStock = 0;
+        for (Future<PlaceOrderResponse> result : results) {
+            try {
+                result.get();
+                placed++;
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(OutOfStockException.class);
+                outOfStock++;
+            }
+        }
+        assertThat(placed).isEqualTo(10);
+        assertThat(outOfStock).isEqualTo(20);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailable()).isZero();
+    }
+
+    private PlaceOrderCommand placeOrderCommand(int buyer, List<OrderItemCommand> items) {
+        var recipient = Recipient.builder()
+                                 .email("buyer" + buyer + "@mail.com")
+                                 .name("Buyer " + buyer)
+                                 .city("New York")
+                                 .zipCode("12345")
+                                 .build();
+        return PlaceOrderCommand.builder()
+                                .items(items)
+                                .recipient(recipient)
+                                .build();
+    }
+}
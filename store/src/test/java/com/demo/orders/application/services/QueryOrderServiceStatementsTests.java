@@ -0,0 +1,192 @@
+package com.demo.orders.application.services;
+
+import com.demo.catalog.domain.Author;
+import com.demo.catalog.domain.Book;
+import com.demo.catalog.infrastructure.AuthorRepository;
+import com.demo.catalog.infrastructure.BookRepository;
+import com.demo.order.application.RichOrder;
+import com.demo.order.application.services.QueryOrderService;
+import com.demo.order.domain.Order;
+import com.demo.order.domain.OrderItem;
+import com.demo.order.domain.OrderStatus;
+import com.demo.order.domain.Recipient;
+import com.demo.order.infrastructure.OrderRepository;
+import com.demo.order.web.OrderRequestParams;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+@SpringBootTest(
+        webEnvironment = NONE,
+        properties = {
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970"
+        }
+)
+@Testcontainers
+public class QueryOrderServiceStatementsTests extends BaseContainerTests {
+
+    @Autowired
+    QueryOrderService queryOrderService;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    AuthorRepository authorRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void findByIdShouldLoadWholeOrderInSingleStatement() {
+        // Arrange
+        var books = createBooks(4);
+        var order = orderRepository.saveAndFlush(createOrder(books, "John Doe"));
+        statistics.clear();
+
+        // Act
+        Optional<RichOrder> result = queryOrderService.findById(order.getId());
+
+        // Assert
+        assertThat(result).isPresent();
+        assertThat(authorNames(List.of(result.get()))).hasSize(8);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAllShouldNotQueryPerOrderOrBook() {
+        // Arrange
+        var books = createBooks(4);
+        for (int i = 0; i < 5; i++) {
+            orderRepository.saveAndFlush(createOrder(books, "Recipient " + i));
+        }
+        var options = new OrderRequestParams(Optional.empty(), Optional.of(1), Optional.of(3));
+        statistics.clear();
+
+        // Act
+        var result = queryOrderService.findAll(options);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(3);
+        assertThat(authorNames(result.getContent())).hasSize(24);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void findAllAfterShouldNotQueryPerOrderOrBook() {
+        // Arrange
+        var books = createBooks(4);
+        for (int i = 0; i < 5; i++) {
+            orderRepository.saveAndFlush(createOrder(books, "Recipient " + i));
+        }
+        var options = new OrderRequestParams(Optional.empty(), Optional.empty(), Optional.of(3));
+        statistics.clear();
+
+        // Act
+        var result = queryOrderService.findAllAfter(options, 0L);
+
+        // Assert
+        assertThat(result.content()).hasSize(3);
+        assertThat(authorNames(result.content())).hasSize(24);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void findAllShouldPageOnlyOrdersWithRequestedStatus() {
+        // Arrange
+        var books = createBooks(2);
+        for (int i = 0; i < 5; i++) {
+            var order = createOrder(books, "Recipient " + i);
+            order.setStatus(i % 2 == 0 ? OrderStatus.PAID : OrderStatus.NEW);
+            orderRepository.saveAndFlush(order);
+        }
+        var options = new OrderRequestParams(Optional.of("paid"), Optional.of(1), Optional.of(2));
+        statistics.clear();
+
+        // Act
+        var result = queryOrderService.findAll(options);
+
+        // Assert
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).hasSize(2)
+                                       .allMatch(order -> order.status() == OrderStatus.PAID);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    private List<String> authorNames(List<RichOrder> orders) {
+        return orders.stream()
+                     .flatMap(order -> order.items().stream())
+                     .flatMap(item -> item.getBook().getAuthors().stream())
+                     .map(Author::getName)
+                     .toList();
+    }
+
+    private List<Book> createBooks(int count) {
+        var books = new ArrayList<Book>();
+        for (int i = 0; i < count; i++) {
+            var book = new Book("Book " + i, 2000 + i, BigDecimal.valueOf(10 + i), 100L);
+            book.addAuthor(new Author("Author " + i));
+            book.addAuthor(new Author("Co-Author " + i));
+            books.add(book);
+        }
+        return bookRepository.saveAllAndFlush(books);
+    }
+
+    private Order createOrder(List<Book> books, String recipientName) {
+        var builder = Order.builder()
+                           .recipient(Recipient.builder()
+                                               .name(recipientName)
+                                               .city("New York")
+                                               .zipCode("12345")
+                                               .build());
+        books.forEach(book -> builder.item(new OrderItem(book, 1)));
+        return builder.build();
+    }
+}
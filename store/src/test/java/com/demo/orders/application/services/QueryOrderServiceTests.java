@@ -2,11 +2,13 @@ package com.demo.orders.application.services;
 
 import com.demo.catalog.domain.Book;
 import com.demo.order.application.RichOrder;
+import com.demo.order.application.exceptions.UnknownOrderStatusException;
 import com.demo.order.application.price.OrderPrice;
 import com.demo.order.application.price.PriceService;
 import com.demo.order.application.services.QueryOrderService;
 import com.demo.order.domain.Order;
 import com.demo.order.domain.OrderItem;
+import com.demo.order.domain.OrderStatus;
 import com.demo.order.domain.Recipient;
 import com.demo.order.infrastructure.OrderRepository;
 import com.demo.order.web.OrderRequestParams;
@@ -23,8 +25,13 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class QueryOrderServiceTests {
@@ -45,8 +52,9 @@ public class QueryOrderServiceTests {
     void findAllShouldReturnValidPage() {
         // Arrange
         var orders = generateOrders(5);
-        Page<Order> page = new PageImpl<>(orders, Pageable.unpaged(), orders.size());
-        when(orderRepositoryMock.findAllPage(any(Pageable.class))).thenReturn(page);
+        Page<Long> ids = new PageImpl<>(List.of(1L, 2L, 3L, 4L, 5L), Pageable.unpaged(), orders.size());
+        when(orderRepositoryMock.findIdsPage(any(Pageable.class))).thenReturn(ids);
+        when(orderRepositoryMock.findAllWithDetailsByIdIn(ids.getContent())).thenReturn(orders);
         OrderRequestParams options = new OrderRequestParams(
                 Optional.empty(), Optional.of(1), Optional.of(5));
         when(priceServiceMock.calculatePrice(any(Order.class))).thenReturn(new OrderPrice(
@@ -59,6 +67,33 @@ public class QueryOrderServiceTests {
         assertThat(result).hasSize(5);
     }
 
+    @Test
+    void findAllShouldFilterByStatus() {
+        // Arrange
+        Page<Long> ids = new PageImpl<>(List.of(), Pageable.unpaged(), 0);
+        when(orderRepositoryMock.findIdsPageByStatus(eq(OrderStatus.PAID), any(Pageable.class))).thenReturn(ids);
+        OrderRequestParams options = new OrderRequestParams(
+                Optional.of("paid"), Optional.of(1), Optional.of(5));
+
+        // Act
+        Page<RichOrder> result = queryOrderService.findAll(options);
+
+        // Assert
+        assertThat(result).isEmpty();
+        verify(orderRepositoryMock, never()).findAllWithDetailsByIdIn(anyCollection());
+    }
+
+    @Test
+    void findAllShouldRejectUnknownStatus() {
+        // Arrange
+        OrderRequestParams options = new OrderRequestParams(
+                Optional.of("lost"), Optional.of(1), Optional.of(5));
+
+        // Act & Assert
+        assertThatThrownBy(() -> queryOrderService.findAll(options))
+                .isInstanceOf(UnknownOrderStatusException.class);
+    }
+
     // INFO -> Rest of the tests are omitted
 
     private List<Order> generateOrders(int count) {
@@ -0,0 +1,153 @@
+package com.demo.orders.application.stock;
+
+import com.demo.catalog.infrastructure.BookStockRepository;
+import com.demo.order.application.OrdersProperties;
+import com.demo.order.application.exceptions.OutOfStockException;
+import com.demo.order.application.stock.InMemoryStockReservations;
+import com.demo.order.application.stock.PendingStockFlusher;
+import com.demo.order.infrastructure.OrderStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InMemoryStockReservationsTests {
+
+    private InMemoryStockReservations reservations;
+    private OrderStockRepository orderStockRepositoryMock;
+    private BookStockRepository bookStockRepositoryMock;
+
+    @BeforeEach
+    void setUp() {
+        orderStockRepositoryMock = mock(OrderStockRepository.class);
+        bookStockRepositoryMock = mock(BookStockRepository.class);
+        var properties = new OrdersProperties(
+                Duration.ofDays(5), null, 500, new OrdersProperties.Reservations(true, Duration.ofSeconds(1), 4));
+        reservations = new InMemoryStockReservations(
+                properties, orderStockRepositoryMock, bookStockRepositoryMock, mock(PendingStockFlusher.class));
+    }
+
+    @Test
+    void reserveShouldRejectQuantityAboveCounter() {
+        // Arrange
+        when(orderStockRepositoryMock.findUnreservedAvailable(1L)).thenReturn(Optional.of(3L));
+        inTransaction(true, () -> reservations.reserve(quantities(1L, 2)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> inTransaction(true, () -> reservations.reserve(quantities(1L, 2))))
+                .isInstanceOf(OutOfStockException.class)
+                .hasMessageContaining("1 available");
+    }
+
+    @Test
+    void rollbackShouldReturnReservedQuantity() {
+        // Arrange
+        when(orderStockRepositoryMock.findUnreservedAvailable(1L)).thenReturn(Optional.of(3L));
+        inTransaction(false, () -> reservations.reserve(quantities(1L, 3)));
+
+        // Act
+        inTransaction(true, () -> reservations.reserve(quantities(1L, 3)));
+
+        // Assert
+        assertThatThrownBy(() -> inTransaction(true, () -> reservations.reserve(quantities(1L, 1))))
+                .isInstanceOf(OutOfStockException.class);
+    }
+
+    @Test
+    void failedReserveShouldReturnBooksReservedBeforeFailure() {
+        // Arrange
+        when(orderStockRepositoryMock.findUnreservedAvailable(1L)).thenReturn(Optional.of(5L));
+        when(orderStockRepositoryMock.findUnreservedAvailable(2L)).thenReturn(Optional.of(1L));
+        var order = quantities(1L, 2);
+        order.put(2L, 2);
+
+        // Act
+        assertThatThrownBy(() -> inTransaction(true, () -> reservations.reserve(order)))
+                .isInstanceOf(OutOfStockException.class);
+
+        // Assert
+        inTransaction(true, () -> reservations.reserve(quantities(1L, 5)));
+    }
+
+    @Test
+    void releaseOfPendingOrderShouldOnlyRestoreCounter() {
+        // Arrange
+        when(orderStockRepositoryMock.findUnreservedAvailable(1L)).thenReturn(Optional.of(2L));
+        when(orderStockRepositoryMock.clearPending(10L)).thenReturn(true);
+        inTransaction(true, () -> reservations.reserve(quantities(1L, 2)));
+
+        // Act
+        inTransaction(true, () -> reservations.release(10L, quantities(1L, 2)));
+
+        // Assert
+        verify(bookStockRepositoryMock, never()).release(any());
+        inTransaction(true, () -> reservations.reserve(quantities(1L, 2)));
+    }
+
+    @Test
+    void concurrentReservationsShouldNotOversell() throws Exception {
+        // Arrange
+        when(orderStockRepositoryMock.findUnreservedAvailable(1L)).thenReturn(Optional.of(10L));
+        var tasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(() -> {
+                inTransaction(true, () -> reservations.reserve(quantities(1L, 1)));
+                return null;
+            });
+        }
+
+        // Act
+        var executor = Executors.newFixedThreadPool(8);
+        var results = executor.invokeAll(tasks);
+        executor.shutdown();
+
+        // Assert
+        int placed = 0;
+        for (var result : results) {
+            try {
+                result.get();
+                placed++;
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(OutOfStockException.class);
+            }
+        }
+        assertThat(placed).isEqualTo(10);
+    }
+
+    private SortedMap<Long, Integer> quantities(long bookId, int quantity) {
+        var quantities = new TreeMap<Long, Integer>();
+        quantities.put(bookId, quantity);
+        return quantities;
+    }
+
+    private void inTransaction(boolean commit, Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            int status = commit
+                    ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK;
+            TransactionSynchronizationManager.getSynchronizations()
+                                             .forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
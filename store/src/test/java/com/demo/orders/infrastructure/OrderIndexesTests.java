@@ -0,0 +1,109 @@
+package com.demo.orders.infrastructure;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+@SpringBootTest(
+        webEnvironment = NONE,
+        properties = {
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970"
+        }
+)
+@Testcontainers
+public class OrderIndexesTests extends BaseContainerTests {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    // INFO -> With seq scans disabled the planner still finds a plan without the expected index, e.g. a full scan
+    //  of the primary key with a filter, so each query is checked for the index it is meant to use
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT id FROM orders WHERE status = 'PAID' ORDER BY id LIMIT 10 | idx_orders_status_id",
+            "SELECT count(id) FROM orders WHERE status = 'PAID' | idx_orders_status_id",
+            "SELECT id FROM orders WHERE id > 100 AND status = 'PAID' ORDER BY id LIMIT 10 | idx_orders_status_id",
+            "SELECT id FROM orders WHERE recipient_id = 1 | idx_orders_recipient_id",
+            "SELECT id FROM order_items WHERE order_id IN (1, 2, 3) | idx_order_items_order_id",
+            "SELECT id FROM order_items WHERE book_id = 1 | idx_order_items_book_id"
+    })
+    void orderQueriesShouldUseIndexes(String query, String index) {
+        // Act
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return explain(query);
+        });
+
+        // Assert
+        assertThat(plan).contains(index);
+    }
+
+    // INFO -> On an empty table (status, id) looks as cheap as the partial index, so the table is filled the way
+    //  the abandon job sees it, with few new orders among many others. The rows are rolled back afterwards.
+    @Test
+    void abandonQueryShouldUsePartialIndexOfNewOrders() {
+        // Arrange
+        String query = """
+                SELECT id FROM orders
+                WHERE status = 'NEW' AND created_at <= now() - interval '5 days'
+                ORDER BY id
+                LIMIT 500
+                FOR UPDATE SKIP LOCKED
+                """;
+
+        // Act
+        String plan = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            jdbcTemplate.update("""
+                    INSERT INTO recipients (uuid, version, email)
+                    VALUES (gen_random_uuid()::varchar, 0, 'indexes@mail.com')
+                    """);
+            jdbcTemplate.update("""
+                    INSERT INTO orders (uuid, version, created_at, delivery, status, recipient_id)
+                    SELECT gen_random_uuid()::varchar, 0, now() - make_interval(days => i % 30), 'COURIER',
+                           CASE WHEN i % 50 = 0 THEN 'NEW' WHEN i % 3 = 0 THEN 'SENT' ELSE 'PAID' END,
+                           (SELECT id FROM recipients WHERE email = 'indexes@mail.com')
+                    FROM generate_series(1, 20000) AS i
+                    """);
+            jdbcTemplate.execute("ANALYZE orders");
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return explain(query);
+        });
+
+        // Assert
+        assertThat(plan).contains("idx_orders_new_created_at");
+    }
+
+    private String explain(String query) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+    }
+}
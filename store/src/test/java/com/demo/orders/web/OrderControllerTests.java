@@ -7,6 +7,7 @@ import com.demo.order.application.placeOrder.commands.PlaceOrderCommand;
 import com.demo.order.domain.Delivery;
 import com.demo.order.domain.Order;
 import com.demo.order.domain.OrderItem;
+import com.demo.order.domain.OrderStatus;
 import com.demo.order.domain.Recipient;
 import com.demo.order.infrastructure.OrderRepository;
 import com.demo.order.infrastructure.RecipientRepository;
@@ -19,9 +20,12 @@ import com.demo.users.infrastructure.UserRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.javafaker.Faker;
 import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
@@ -37,8 +41,10 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.matchesPattern;
 
@@ -147,8 +153,86 @@ public class OrderControllerTests extends BaseContainerTests {
                 .header("Location", matchesPattern(".*/orders/[0-9]+"));
     }
 
+    @Test
+    void getOrdersAfterShouldReturnEveryOrderOnceWhenFollowingNext() {
+        // Arrange
+        var token = jwtService.generateToken(createAdmin());
+        var books = bookRepository.saveAll(generateBooks(5));
+        var orders = orderRepository.saveAll(generateOrders(7, books));
+
+        // Act
+        var ids = followNext(token, Map.of());
+
+        // Assert
+        assertThat(ids).containsExactlyElementsOf(orders.stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void getOrdersAfterShouldApplyStatusFilterOnEveryPage() {
+        // Arrange
+        var token = jwtService.generateToken(createAdmin());
+        var books = bookRepository.saveAll(generateBooks(5));
+        var orders = generateOrders(9, books);
+        for (int i = 0; i < orders.size(); i += 2) {
+            orders.get(i).updateStatus(OrderStatus.PAID);
+        }
+        var saved = orderRepository.saveAll(orders);
+
+        // Act
+        var ids = followNext(token, Map.of("status", "paid"));
+
+        // Assert
+        assertThat(ids).containsExactlyElementsOf(saved.stream()
+                                                       .filter(order -> order.getStatus() == OrderStatus.PAID)
+                                                       .map(Order::getId)
+                                                       .toList());
+    }
+
+    // INFO -> Text that is not base64, a cursor with a non-numeric or overflowing id and one without the id prefix
+    @ParameterizedTest
+    @ValueSource(strings = {"not-a-cursor!", "aWQ6YWJj", "aWQ6OTk5OTk5OTk5OTk5OTk5OTk5OTk", "cGFnZToy"})
+    void getOrdersAfterShouldReturn400WhenCursorIsInvalid(String after) {
+        // Arrange
+        var token = jwtService.generateToken(createAdmin());
+
+        // Act & Assert
+        given()
+                .header("Authorization", "Bearer " + token)
+                .queryParam("after", after)
+        .when()
+                .get("/orders")
+        .then()
+                .log().body()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("title", is("Invalid cursor"));
+    }
+
     // INFO: Rest of the tests are omitted
 
+    // INFO -> Pages of two are requested until next is empty, a repeated page would show up as a duplicate id
+    private List<Long> followNext(String token, Map<String, ?> filters) {
+        var ids = new ArrayList<Long>();
+        String after = "";
+        do {
+            JsonPath page = given()
+                    .header("Authorization", "Bearer " + token)
+                    .queryParams(filters)
+                    .queryParam("after", after)
+                    .queryParam("pageSize", 2)
+            .when()
+                    .get("/orders")
+            .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract()
+                    .jsonPath();
+            ids.addAll(page.getList("content.id", Long.class));
+            after = page.getString("next");
+            assertThat(page.getBoolean("hasNext")).isEqualTo(after != null);
+            assertThat(ids).doesNotHaveDuplicates();
+        } while (after != null);
+        return ids;
+    }
+
     private User createAdmin() {
        var admin = User.builder()
                        .email("admin@mail.com")
@@ -0,0 +1,84 @@
+package com.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BoundedPasswordEncoderTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void encodeShouldHashOnPoolAndRecordLatency() {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), new PasswordProperties(4, 2, 4), meterRegistry);
+
+        // Act
+        var hash = encoder.encode("Password123!");
+
+        // Assert
+        assertThat(encoder.matches("Password123!", hash)).isTrue();
+        assertThat(encoder.matches("Password456!", hash)).isFalse();
+        assertThat(meterRegistry.timer("security.passwords.hash", "operation", "encode").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("security.passwords.hash", "operation", "matches").count()).isEqualTo(2);
+        assertThat(meterRegistry.timer("security.passwords.queue.wait").count()).isEqualTo(3);
+    }
+
+    @Test
+    void encodeShouldRejectWhenPoolAndQueueAreFull() throws Exception {
+        // Arrange
+        var release = new CountDownLatch(1);
+        var delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return "hash";
+        });
+        encoder = new BoundedPasswordEncoder(delegate, new PasswordProperties(4, 1, 1), meterRegistry);
+        var running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        await().until(() -> meterRegistry.timer("security.passwords.queue.wait").count() == 1);
+        var queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        await().until(() -> meterRegistry.get("security.passwords.queue.size").gauge().value() == 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(PasswordHashingBusyException.class);
+        assertThat(meterRegistry.counter("security.passwords.rejected").count()).isEqualTo(1);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+    }
+
+    @Test
+    void upgradeEncodingShouldFlagHashesWeakerThanStrength() {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(6), new PasswordProperties(6, 1, 1), meterRegistry);
+
+        // Act & Assert
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("Password123!"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("Password123!"))).isFalse();
+    }
+}
@@ -0,0 +1,86 @@
+package com.demo.security;
+
+import com.demo.users.domain.Role;
+import com.demo.users.domain.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// INFO -> Compares the per request cost of authenticating a bearer token. The legacy benchmark repeats what the
+//  filter used to do: three parses, each decoding the secret and building a parser. Tokens rotate through a pool
+//  larger than one request burst, so the uncached service never finds a token it has just verified.
+//  Run with: mvn -pl store test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+//  "-Dexec.args=-cp %classpath org.openjdk.jmh.Main JwtAuthBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final int TOKENS = 4096;
+
+    private final String[] tokens = new String[TOKENS];
+    private JwtService cached;
+    private JwtService uncached;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtService(SECRET, 3_600_000, 10_000);
+        uncached = new JwtService(SECRET, 3_600_000, 0);
+        for (int i = 0; i < TOKENS; i++) {
+            var user = new User("user" + i + "@mail.com", "password", Role.USER);
+            user.setId((long) i);
+            tokens[i] = cached.generateToken(user);
+        }
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String token = nextToken();
+        String email = legacyClaims(token).getSubject();
+        return legacyClaims(token).getSubject().equals(email)
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public Object verifyUncached() {
+        return uncached.verify(nextToken()).flatMap(uncached::toUser);
+    }
+
+    @Benchmark
+    public Object verifyCached() {
+        return cached.verify(nextToken()).flatMap(cached::toUser);
+    }
+
+    private String nextToken() {
+        next = (next + 1) % TOKENS;
+        return tokens[next];
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder()
+                   .setSigningKey(key)
+                   .build()
+                   .parseClaimsJws(token)
+                   .getBody();
+    }
+}
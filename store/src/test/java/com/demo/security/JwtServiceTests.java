@@ -0,0 +1,91 @@
+package com.demo.security;
+
+import com.demo.users.domain.Role;
+import com.demo.users.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class JwtServiceTests {
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final String OTHER_SECRET = "5A7234753778214125442A472D4B6150645367566B59703373367638792F423F";
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("john@mail.com", "password", Role.USER);
+        user.setId(7L);
+        user.setVersion(3);
+    }
+
+    @Test
+    void verifyShouldReturnClaimsOfValidToken() {
+        // Arrange
+        var jwtService = new JwtService(SECRET, 300_000, 100);
+        var token = jwtService.generateToken(user);
+
+        // Act
+        var first = jwtService.verify(token);
+        var second = jwtService.verify(token);
+
+        // Assert
+        assertThat(first).hasValueSatisfying(claims -> assertThat(claims.getSubject()).isEqualTo("john@mail.com"));
+        assertThat(second).containsSame(first.get());
+    }
+
+    @Test
+    void toUserShouldRebuildUserFromClaims() {
+        // Arrange
+        var jwtService = new JwtService(SECRET, 300_000, 100);
+        var claims = jwtService.verify(jwtService.generateToken(user)).orElseThrow();
+
+        // Act
+        var principal = jwtService.toUser(claims);
+
+        // Assert
+        assertThat(principal).hasValueSatisfying(rebuilt -> {
+            assertThat(rebuilt.getId()).isEqualTo(7L);
+            assertThat(rebuilt.getEmail()).isEqualTo("john@mail.com");
+            assertThat(rebuilt.getRole()).isEqualTo(Role.USER);
+            assertThat(rebuilt.getVersion()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void verifyShouldRejectTokenSignedWithOtherKey() {
+        // Arrange
+        var token = new JwtService(OTHER_SECRET, 300_000, 100).generateToken(user);
+
+        // Act
+        var claims = new JwtService(SECRET, 300_000, 100).verify(token);
+
+        // Assert
+        assertThat(claims).isEmpty();
+    }
+
+    @Test
+    void verifyShouldRejectMalformedToken() {
+        // Act
+        var claims = new JwtService(SECRET, 300_000, 100).verify("not-a-token");
+
+        // Assert
+        assertThat(claims).isEmpty();
+    }
+
+    @Test
+    void verifyShouldStopReturningCachedClaimsOnceTokenExpires() {
+        // Arrange
+        var jwtService = new JwtService(SECRET, 1000, 100);
+        var token = jwtService.generateToken(user);
+        assertThat(jwtService.verify(token)).isPresent();
+
+        // Act & Assert
+        await().atMost(Duration.ofSeconds(5))
+               .until(() -> jwtService.verify(token).isEmpty());
+    }
+}
@@ -0,0 +1,176 @@
+package com.demo.shared.messaging;
+
+import com.demo.shared.messaging.OutboxRepository.OutboxMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utils.FakeClock;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OutboxRelayTests {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final LocalDateTime NOW = CREATED_AT.plusSeconds(2);
+    private static final Duration BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private OutboxRepository repository;
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxRepository.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        var clock = new FakeClock(CREATED_AT);
+        clock.tick(Duration.ofSeconds(2));
+        relay = new OutboxRelay(
+                repository,
+                rabbitTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new MessagingProperties(new MessagingProperties.Outbox(
+                        Duration.ofMillis(500), 3, Duration.ofMillis(200), BACKOFF, MAX_BACKOFF, 5
+                )),
+                clock,
+                meterRegistry
+        );
+    }
+
+    @Test
+    void relayShouldDeleteConfirmedMessagesAndKeepTheRest() {
+        // Arrange
+        when(repository.lockBatch(3, NOW, 5))
+                .thenReturn(List.of(message(1), message(2), message(3)))
+                .thenReturn(List.of());
+        doAnswer(invocation -> {
+            Message amqpMessage = invocation.<MessagePostProcessor>getArgument(3)
+                                            .postProcessMessage(new Message(new byte[0], new MessageProperties()));
+            CorrelationData correlation = invocation.getArgument(4);
+            switch (correlation.getId()) {
+                case "1" -> correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+                case "2" -> correlation.getFuture().complete(new CorrelationData.Confirm(false, "disk full"));
+                default -> {
+                    correlation.setReturned(new ReturnedMessage(amqpMessage, 312, "NO_ROUTE", "", "missing"));
+                    correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+                }
+            }
+            assertThat(amqpMessage.getMessageProperties().getMessageId()).isEqualTo("outbox-" + correlation.getId());
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(""), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(repository).delete(List.of(1L));
+        verify(repository).recordFailures(Map.of(2L, "Nacked: disk full", 3L, "Unroutable: NO_ROUTE"), NOW, BACKOFF, MAX_BACKOFF);
+        verify(repository, times(2)).lockBatch(3, NOW, 5);
+        assertThat(meterRegistry.counter("messaging.outbox.published").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("messaging.outbox.failed").count()).isEqualTo(2);
+        assertThat(meterRegistry.timer("messaging.outbox.lag").totalTime(TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @Test
+    void relayShouldEndPollWithoutRecordingFailuresOnceBrokerIsUnreachable() {
+        // Arrange
+        when(repository.lockBatch(3, NOW, 5)).thenReturn(List.of(message(1), message(2), message(3)));
+        doThrow(new AmqpConnectException(new ConnectException("Connection refused")))
+                .when(rabbitTemplate).convertAndSend(eq(""), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(rabbitTemplate, times(1)).convertAndSend(eq(""), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+        verify(repository, times(1)).lockBatch(3, NOW, 5);
+        verify(repository, never()).delete(anyCollection());
+        verify(repository, never()).recordFailures(anyMap(), any(), any(), any());
+        assertThat(meterRegistry.counter("messaging.outbox.failed").count()).isZero();
+    }
+
+    @Test
+    void relayShouldTreatMissingConfirmAsFailure() {
+        // Arrange
+        when(repository.lockBatch(3, NOW, 5)).thenReturn(List.of(message(1)));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(repository, never()).delete(anyCollection());
+        verify(repository).recordFailures(Map.of(1L, "Confirm timed out"), NOW, BACKOFF, MAX_BACKOFF);
+        assertThat(meterRegistry.counter("messaging.outbox.exhausted").count()).isZero();
+    }
+
+    @Test
+    void relayShouldReportMessagesThatRanOutOfAttempts() {
+        // Arrange
+        when(repository.lockBatch(3, NOW, 5)).thenReturn(List.of(message(1, 4), message(2, 3)));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(repository).recordFailures(Map.of(1L, "Confirm timed out", 2L, "Confirm timed out"), NOW, BACKOFF, MAX_BACKOFF);
+        assertThat(meterRegistry.counter("messaging.outbox.exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    void relayShouldKeepDrainingWhileBatchesAreFull() {
+        // Arrange
+        when(repository.lockBatch(3, NOW, 5))
+                .thenReturn(List.of(message(1), message(2), message(3)))
+                .thenReturn(List.of(message(4)));
+        doAnswer(invocation -> {
+            invocation.<CorrelationData>getArgument(4).getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(""), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(repository).delete(List.of(1L, 2L, 3L));
+        verify(repository).delete(List.of(4L));
+        verify(repository, times(2)).lockBatch(3, NOW, 5);
+        verify(repository, never()).recordFailures(anyMap(), any(), any(), any());
+    }
+
+    private static OutboxMessage message(long id) {
+        return message(id, 0);
+    }
+
+    private static OutboxMessage message(long id, int attempts) {
+        return new OutboxMessage(id, "notification-queue", "{\"id\":" + id + "}", attempts, CREATED_AT);
+    }
+}
@@ -0,0 +1,131 @@
+package com.demo.shared.messaging;
+
+import com.demo.shared.messaging.OutboxRepository.OutboxMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+@SpringBootTest(
+        webEnvironment = NONE,
+        properties = {
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970"
+        }
+)
+@Testcontainers
+public class OutboxRepositoryTests extends BaseContainerTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final Duration BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+
+    @MockBean
+    OutboxRelay relay;
+    @Autowired
+    OutboxRepository repository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM outbox_messages");
+    }
+
+    @Test
+    void recordFailuresShouldDoubleBackoffPerAttemptUpToMax() {
+        // Arrange
+        repository.insert("notification-queue", "{}", NOW);
+        long id = lock(NOW, 5).get(0).id();
+        var delays = new ArrayList<Duration>();
+
+        // Act
+        for (int attempt = 0; attempt < 6; attempt++) {
+            repository.recordFailures(Map.of(id, "Nacked"), NOW, BACKOFF, MAX_BACKOFF);
+            delays.add(Duration.between(NOW, nextAttemptAt(id)));
+        }
+
+        // Assert
+        assertThat(delays).extracting(Duration::toSeconds).containsExactly(1L, 2L, 4L, 8L, 10L, 10L);
+    }
+
+    @Test
+    void lockBatchShouldSkipMessagesWaitingOutBackoff() {
+        // Arrange
+        repository.insert("notification-queue", "{}", NOW);
+        repository.insert("notification-queue", "{}", NOW);
+        long failedId = lock(NOW, 5).get(0).id();
+        repository.recordFailures(Map.of(failedId, "Unroutable: NO_ROUTE"), NOW, BACKOFF, MAX_BACKOFF);
+
+        // Act
+        var beforeBackoff = lock(NOW.plusNanos(999_000_000), 5);
+        var afterBackoff = lock(NOW.plusSeconds(1), 5);
+
+        // Assert
+        assertThat(beforeBackoff).extracting(OutboxMessage::id).doesNotContain(failedId).hasSize(1);
+        assertThat(afterBackoff).extracting(OutboxMessage::id).contains(failedId).hasSize(2);
+        assertThat(afterBackoff).filteredOn(message -> message.id() == failedId)
+                                .extracting(OutboxMessage::attempts)
+                                .containsExactly(1);
+    }
+
+    @Test
+    void lockBatchShouldSkipMessagesOutOfAttempts() {
+        // Arrange
+        repository.insert("notification-queue", "{}", NOW);
+        long id = lock(NOW, 5).get(0).id();
+        repository.recordFailures(Map.of(id, "Nacked"), NOW, BACKOFF, MAX_BACKOFF);
+        repository.recordFailures(Map.of(id, "Nacked"), NOW, BACKOFF, MAX_BACKOFF);
+
+        // Act
+        var result = lock(NOW.plusHours(1), 2);
+
+        // Assert
+        assertThat(result).isEmpty();
+        assertThat(lock(NOW.plusHours(1), 3)).extracting(OutboxMessage::id).containsExactly(id);
+    }
+
+    private List<OutboxMessage> lock(LocalDateTime now, int maxAttempts) {
+        return transactionTemplate.execute(status -> repository.lockBatch(10, now, maxAttempts));
+    }
+
+    private LocalDateTime nextAttemptAt(long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT next_attempt_at FROM outbox_messages WHERE id = ?",
+                LocalDateTime.class,
+                id
+        );
+    }
+}
@@ -0,0 +1,55 @@
+package com.demo.shared.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CursorPageTests {
+
+    @Test
+    void ofShouldReturnNextCursorWhenMoreRowsThanPageSize() {
+        // Arrange
+        var rows = List.of(4L, 7L, 9L);
+
+        // Act
+        var page = CursorPage.of(rows, 2, Long::longValue);
+
+        // Assert
+        assertThat(page.content()).containsExactly(4L, 7L);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(Cursor.decode(page.next())).isEqualTo(7L);
+    }
+
+    @Test
+    void ofShouldNotReturnNextCursorOnLastPage() {
+        // Arrange
+        var rows = List.of(4L, 7L);
+
+        // Act
+        var page = CursorPage.of(rows, 2, Long::longValue);
+
+        // Assert
+        assertThat(page.content()).containsExactly(4L, 7L);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.next()).isNull();
+    }
+
+    @Test
+    void decodeShouldStartFromBeginningWhenCursorIsBlank() {
+        // Arrange & Act
+        long after = Cursor.decode("");
+
+        // Assert
+        assertThat(after).isEqualTo(Cursor.START);
+    }
+
+    @Test
+    void decodeShouldFailWhenCursorIsNotValid() {
+        // Arrange & Act & Assert
+        assertThatThrownBy(() -> Cursor.decode("not-a-cursor"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
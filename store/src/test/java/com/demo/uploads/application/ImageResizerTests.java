@@ -0,0 +1,69 @@
+package com.demo.uploads.application;
+
+import com.demo.upload.application.ImageResizer;
+import com.demo.upload.application.UploadsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImageResizerTests {
+
+    private ImageResizer resizer;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new UploadsProperties(
+                DataSize.ofMegabytes(10),
+                new UploadsProperties.Storage(Path.of("uploads"), false, 20),
+                new UploadsProperties.Variants(List.of(64, 256, 512), 0.85f)
+        );
+        resizer = new ImageResizer(properties);
+    }
+
+    @Test
+    void resizeShouldKeepAspectRatioAndEncodeJpeg() throws Exception {
+        // Arrange
+        var source = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        var resized = resizer.resize(source, 256);
+
+        // Assert
+        var image = ImageIO.read(new ByteArrayInputStream(resized.content()));
+        assertThat(resized.contentType()).isEqualTo("image/jpeg");
+        assertThat(image.getWidth()).isEqualTo(256);
+        assertThat(image.getHeight()).isEqualTo(128);
+    }
+
+    @Test
+    void resizeShouldKeepTransparentImagesAsPng() throws Exception {
+        // Arrange
+        var source = new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB);
+
+        // Act
+        var resized = resizer.resize(source, 64);
+
+        // Assert
+        var image = ImageIO.read(new ByteArrayInputStream(resized.content()));
+        assertThat(resized.contentType()).isEqualTo("image/png");
+        assertThat(image.getColorModel().hasAlpha()).isTrue();
+        assertThat(image.getWidth()).isEqualTo(64);
+    }
+
+    @Test
+    void decodeShouldReturnEmptyWhenContentIsNotAnImage() {
+        // Act
+        var image = resizer.decode(new ByteArrayInputStream("not an image".getBytes()));
+
+        // Assert
+        assertThat(image).isEmpty();
+    }
+}
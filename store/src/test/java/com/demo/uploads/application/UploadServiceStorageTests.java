@@ -0,0 +1,233 @@
+package com.demo.uploads.application;
+
+import com.demo.upload.application.BlobStore;
+import com.demo.upload.application.SaveUploadCommand;
+import com.demo.upload.application.UploadService;
+import com.demo.upload.application.exceptions.UploadTooLargeException;
+import com.demo.upload.infrastructure.UploadRepository;
+import com.demo.upload.infrastructure.UploadVariantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+@SpringBootTest(
+        webEnvironment = NONE,
+        properties = {
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+                "app.uploads.storage.root=target/test-uploads",
+                "app.uploads.max-size=64KB"
+        }
+)
+@Testcontainers
+public class UploadServiceStorageTests extends BaseContainerTests {
+
+    @Autowired
+    UploadService uploadService;
+    @Autowired
+    UploadRepository uploadRepository;
+    @Autowired
+    UploadVariantRepository uploadVariantRepository;
+    @Autowired
+    BlobStore blobStore;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadVariantRepository.deleteAll();
+        uploadRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM blobs");
+    }
+
+    @Test
+    void saveShouldStoreIdenticalContentOnce() {
+        // Arrange
+        var content = content(2048);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            uploadService.save(new SaveUploadCommand("cover" + i + ".jpg", new ByteArrayInputStream(content), "image/jpeg"));
+        }
+
+        // Assert
+        var blobs = jdbcTemplate.queryForList("SELECT hash, ref_count FROM blobs");
+        assertThat(blobs).hasSize(1);
+        assertThat(blobs.get(0).get("ref_count")).isEqualTo(3L);
+        assertThat(blobStore.exists((String) blobs.get(0).get("hash"))).isTrue();
+    }
+
+    @Test
+    void saveShouldRejectContentAboveMaxSize() {
+        // Arrange
+        var command = new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content(64 * 1024 + 1)), "image/jpeg");
+
+        // Act & Assert
+        assertThatThrownBy(() -> uploadService.save(command)).isInstanceOf(UploadTooLargeException.class);
+        assertThat(uploadRepository.count()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM blobs", Long.class)).isZero();
+    }
+
+    @Test
+    void migrateLegacyShouldMoveContentToBlobStore() throws Exception {
+        // Arrange
+        var content = content(10_000);
+        jdbcTemplate.update("""
+                INSERT INTO uploads (uuid, version, content_type, filename, file, size)
+                VALUES (?, 0, 'image/jpeg', 'cover.jpg', ?, ?)
+                """, UUID.randomUUID().toString(), content, content.length);
+        long id = jdbcTemplate.queryForObject("SELECT max(id) FROM uploads", Long.class);
+
+        // Act
+        int migrated = uploadService.migrateLegacy(10);
+
+        // Assert
+        assertThat(migrated).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT file IS NULL FROM uploads WHERE id = ?", Boolean.class, id))
+                .isTrue();
+        var metadata = uploadService.getMetadataById(id).orElseThrow();
+        assertThat(metadata.storageKey()).isNotNull();
+        try (var in = uploadService.getContent(metadata).getInputStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void removeByIdShouldKeepBlobUntilLastUploadIsRemoved() {
+        // Arrange
+        var content = content(1024);
+        var first = uploadService.save(new SaveUploadCommand("first.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+        var second = uploadService.save(new SaveUploadCommand("second.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+        var storageKey = first.getStorageKey();
+
+        // Act
+        uploadService.removeById(first.getId());
+
+        // Assert
+        assertThat(second.getStorageKey()).isEqualTo(storageKey);
+        assertThat(blobStore.exists(storageKey)).isTrue();
+        uploadService.removeById(second.getId());
+        assertThat(blobStore.exists(storageKey)).isFalse();
+    }
+
+    @Test
+    void removeByIdShouldDeleteBlobOnlyAfterCommit() {
+        // Arrange
+        var upload = uploadService.save(new SaveUploadCommand("first.jpg", new ByteArrayInputStream(content(1024)), "image/jpeg"));
+        var storageKey = upload.getStorageKey();
+
+        // Act
+        boolean existsBeforeCommit = transactionTemplate.execute(status -> {
+            uploadService.removeById(upload.getId());
+            return blobStore.exists(storageKey);
+        });
+
+        // Assert
+        assertThat(existsBeforeCommit).isTrue();
+        assertThat(blobStore.exists(storageKey)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM blobs", Long.class)).isZero();
+    }
+
+    @Test
+    void removeByIdShouldKeepBlobWhenRemovalRollsBack() throws Exception {
+        // Arrange
+        var content = content(1024);
+        var upload = uploadService.save(new SaveUploadCommand("first.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            uploadService.removeById(upload.getId());
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        var metadata = uploadService.getMetadataById(upload.getId()).orElseThrow();
+        try (var in = uploadService.getContent(metadata).getInputStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void saveAfterRemovalShouldKeepBlobOfSameContent() throws Exception {
+        // Arrange
+        var content = content(1024);
+        var first = uploadService.save(new SaveUploadCommand("first.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+
+        // Act
+        var second = transactionTemplate.execute(status -> {
+            uploadService.removeById(first.getId());
+            return uploadService.save(new SaveUploadCommand("second.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+        });
+
+        // Assert
+        assertThat(blobStore.exists(second.getStorageKey())).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT ref_count FROM blobs", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void removeByIdShouldReleaseBlobsOfVariants() throws Exception {
+        // Arrange
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(jpeg(1000, 1500)), "image/jpeg"));
+        await().atMost(Duration.ofSeconds(10))
+               .until(() -> uploadService.hasVariant(upload.getId(), 512));
+        var keys = jdbcTemplate.queryForList("SELECT hash FROM blobs", String.class);
+
+        // Act
+        uploadService.removeById(upload.getId());
+
+        // Assert
+        assertThat(keys).hasSize(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM blobs", Long.class)).isZero();
+        assertThat(keys).noneMatch(blobStore::exists);
+    }
+
+    private byte[] jpeg(int width, int height) throws IOException {
+        var out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return out.toByteArray();
+    }
+
+    private byte[] content(int size) {
+        var content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
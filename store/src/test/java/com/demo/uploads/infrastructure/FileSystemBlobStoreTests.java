@@ -0,0 +1,116 @@
+package com.demo.uploads.infrastructure;
+
+import com.demo.upload.application.UploadsProperties;
+import com.demo.upload.application.exceptions.UploadTooLargeException;
+import com.demo.upload.infrastructure.FileSystemBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FileSystemBlobStoreTests {
+
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new UploadsProperties(
+                DataSize.ofMegabytes(10),
+                new UploadsProperties.Storage(root, false, 20),
+                new UploadsProperties.Variants(List.of(64, 256, 512), 0.85f)
+        );
+        blobStore = new FileSystemBlobStore(properties);
+    }
+
+    @Test
+    void stageShouldKeyContentBySha256() throws Exception {
+        // Arrange
+        var content = content(200_000);
+
+        // Act
+        String key;
+        try (var blob = blobStore.stage(new ByteArrayInputStream(content), content.length)) {
+            blob.commit();
+            key = blob.key();
+            assertThat(blob.size()).isEqualTo(content.length);
+        }
+
+        // Assert
+        var expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertThat(key).isEqualTo(expected);
+        try (var in = blobStore.get(key).getInputStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void stageShouldRejectContentAboveMaxSizeAndLeaveNoFiles() throws Exception {
+        // Arrange
+        var content = content(1025);
+
+        // Act & Assert
+        assertThatThrownBy(() -> blobStore.stage(new ByteArrayInputStream(content), 1024))
+                .isInstanceOf(UploadTooLargeException.class);
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void closeWithoutCommitShouldDiscardContent() throws Exception {
+        // Arrange
+        var content = content(1024);
+
+        // Act
+        String key;
+        try (var blob = blobStore.stage(new ByteArrayInputStream(content), content.length)) {
+            key = blob.key();
+        }
+
+        // Assert
+        assertThat(blobStore.exists(key)).isFalse();
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void commitOfExistingContentShouldKeepSingleCopy() throws Exception {
+        // Arrange
+        var content = content(1024);
+        try (var blob = blobStore.stage(new ByteArrayInputStream(content), content.length)) {
+            blob.commit();
+        }
+
+        // Act
+        try (var blob = blobStore.stage(new ByteArrayInputStream(content), content.length)) {
+            blob.commit();
+        }
+
+        // Assert
+        assertThat(files()).hasSize(1);
+    }
+
+    private List<Path> files() throws Exception {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private byte[] content(int size) {
+        var content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
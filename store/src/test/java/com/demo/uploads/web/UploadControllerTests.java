@@ -0,0 +1,372 @@
+package com.demo.uploads.web;
+
+import com.demo.upload.application.SaveUploadCommand;
+import com.demo.upload.application.UploadService;
+import com.demo.upload.infrastructure.UploadRepository;
+import com.demo.upload.infrastructure.UploadVariantRepository;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import utils.BaseContainerTests;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "jwt.expiration=300000",
+                "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+                "app.uploads.storage.root=target/test-uploads"
+        }
+)
+@Testcontainers
+public class UploadControllerTests extends BaseContainerTests {
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UploadService uploadService;
+    @Autowired
+    private UploadRepository uploadRepository;
+    @Autowired
+    private UploadVariantRepository uploadVariantRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    protected static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("spring.rabbitmq.host", rabbitMq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitMq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitMq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitMq::getAdminPassword);
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+        registry.add("rabbitmq.queue.notification", () -> "notification-queue");
+
+        registry.add("springdoc.swagger-ui.servers.dev.url", () -> "http://localhost:1234");
+    }
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.baseURI = "http://localhost:" + port;
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadVariantRepository.deleteAll();
+        uploadRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM blobs");
+    }
+
+    @Test
+    void getUploadShouldReturnMetadata() {
+        // Arrange
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content(1024)), "image/jpeg"));
+
+        // Act & Assert
+        given()
+        .when()
+                .get("/uploads/{id}", upload.getId())
+        .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("filename", equalTo("cover.jpg"))
+                .body("contentType", equalTo("image/jpeg"));
+    }
+
+    @Test
+    void getUploadFileShouldStreamWholeContent() {
+        // Arrange
+        var content = content(600 * 1024 + 7);
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+
+        // Act
+        var response = given()
+                .when()
+                        .get("/uploads/{id}/file", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .header("Content-Length", String.valueOf(content.length))
+                        .header("Accept-Ranges", "bytes")
+                        .contentType("image/jpeg")
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        assertThat(response).isEqualTo(content);
+    }
+
+    @Test
+    void getUploadFileShouldSendValidatorsAndImmutableCacheControl() {
+        // Arrange
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content(1024)), "image/jpeg"));
+
+        // Act & Assert
+        given()
+        .when()
+                .get("/uploads/{id}/file", upload.getId())
+        .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", "\"" + upload.getUuid() + "\"")
+                .header("Last-Modified", notNullValue())
+                .header("Cache-Control", containsString("immutable"));
+    }
+
+    @Test
+    void getUploadFileShouldReturnNotModifiedWhenEtagMatches() {
+        // Arrange
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content(1024)), "image/jpeg"));
+
+        // Act
+        var response = given()
+                .header("If-None-Match", "\"" + upload.getUuid() + "\"")
+                .when()
+                        .get("/uploads/{id}/file", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.NOT_MODIFIED.value())
+                        .header("ETag", "\"" + upload.getUuid() + "\"")
+                        .header("Cache-Control", containsString("immutable"))
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        assertThat(response).isEmpty();
+    }
+
+    @Test
+    void getUploadFileShouldReturnContentWhenEtagDoesNotMatch() {
+        // Arrange
+        var content = content(1024);
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+
+        // Act
+        var response = given()
+                .header("If-None-Match", "\"other\"")
+                .when()
+                        .get("/uploads/{id}/file", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        assertThat(response).isEqualTo(content);
+    }
+
+    @Test
+    void getUploadFileShouldReturnRequestedRange() {
+        // Arrange
+        var content = content(600 * 1024);
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+        int from = 262_000;
+        int to = 263_000;
+
+        // Act
+        var response = given()
+                .header("Range", "bytes=" + from + "-" + to)
+                .when()
+                        .get("/uploads/{id}/file", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.PARTIAL_CONTENT.value())
+                        .header("Content-Range", "bytes " + from + "-" + to + "/" + content.length)
+                        .header("Content-Length", String.valueOf(to - from + 1))
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        assertThat(response).isEqualTo(Arrays.copyOfRange(content, from, to + 1));
+    }
+
+    @Test
+    void getUploadFileShouldReturnMultipartForMultipleRanges() {
+        // Arrange
+        var content = content(4096);
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+
+        // Act & Assert
+        given()
+                .header("Range", "bytes=0-9,-10")
+        .when()
+                .get("/uploads/{id}/file", upload.getId())
+        .then()
+                .statusCode(HttpStatus.PARTIAL_CONTENT.value())
+                .contentType(startsWith("multipart/byteranges"))
+                .body(containsString("Content-Range: bytes 0-9/4096"))
+                .body(containsString("Content-Range: bytes 4086-4095/4096"));
+    }
+
+    @Test
+    void getUploadFileShouldRejectUnsatisfiableRange() {
+        // Arrange
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content(1024)), "image/jpeg"));
+
+        // Act & Assert
+        given()
+                .header("Range", "bytes=2048-")
+        .when()
+                .get("/uploads/{id}/file", upload.getId())
+        .then()
+                .statusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value())
+                .header("Content-Range", "bytes */1024");
+    }
+
+    @Test
+    void getUploadFileShouldServeNearestVariantForRequestedWidth() throws Exception {
+        // Arrange
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(jpeg(800, 1200)), "image/jpeg"));
+        await().atMost(Duration.ofSeconds(10))
+               .until(() -> uploadService.hasVariant(upload.getId(), 512));
+
+        // Act
+        var response = given()
+                .when()
+                        .get("/uploads/{id}/file?w=200", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .contentType("image/jpeg")
+                        .header("Cache-Control", containsString("immutable"))
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        var image = ImageIO.read(new ByteArrayInputStream(response));
+        assertThat(image.getWidth()).isEqualTo(256);
+        assertThat(image.getHeight()).isEqualTo(384);
+    }
+
+    @Test
+    void getUploadFileShouldServeOriginalWithoutLongCachingWhileVariantIsPending() throws Exception {
+        // Arrange
+        var content = jpeg(300, 300);
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+        awaitVariants(upload.getId());
+        jdbcTemplate.update("UPDATE uploads SET variants_pending = true WHERE id = ?", upload.getId());
+
+        // Act
+        var response = given()
+                .when()
+                        .get("/uploads/{id}/file?w=400", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .header("Cache-Control", "no-cache")
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        assertThat(response).isEqualTo(content);
+    }
+
+    @Test
+    void getUploadFileShouldServeOriginalWithImmutableCachingWhenImageIsNotWiderThanVariant() throws Exception {
+        // Arrange
+        var content = jpeg(300, 300);
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+        awaitVariants(upload.getId());
+
+        // Act
+        var response = given()
+                .when()
+                        .get("/uploads/{id}/file?w=400", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .header("Cache-Control", containsString("immutable"))
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        assertThat(response).isEqualTo(content);
+        assertThat(uploadService.hasVariant(upload.getId(), 512)).isFalse();
+    }
+
+    @Test
+    void getUploadFileShouldServeOriginalWithImmutableCachingWhenWidthExceedsLargestVariant() throws Exception {
+        // Arrange
+        var content = jpeg(800, 1200);
+        var upload = uploadService.save(new SaveUploadCommand("cover.jpg", new ByteArrayInputStream(content), "image/jpeg"));
+
+        // Act
+        var response = given()
+                .when()
+                        .get("/uploads/{id}/file?w=1000", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .header("Cache-Control", containsString("immutable"))
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        assertThat(response).isEqualTo(content);
+    }
+
+    @Test
+    void getUploadFileShouldServeOriginalWithImmutableCachingWhenUploadIsNoImage() {
+        // Arrange
+        var content = content(1024);
+        var upload = uploadService.save(new SaveUploadCommand("cover.pdf", new ByteArrayInputStream(content), "application/pdf"));
+
+        // Act
+        var response = given()
+                .when()
+                        .get("/uploads/{id}/file?w=256", upload.getId())
+                .then()
+                        .statusCode(HttpStatus.OK.value())
+                        .header("Cache-Control", containsString("immutable"))
+                        .extract()
+                        .asByteArray();
+
+        // Assert
+        assertThat(response).isEqualTo(content);
+    }
+
+    @Test
+    void getUploadFileShouldReturnNotFoundWhenUploadDoesNotExist() {
+        given()
+        .when()
+                .get("/uploads/{id}/file", Long.MAX_VALUE)
+        .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    private void awaitVariants(Long uploadId) {
+        await().atMost(Duration.ofSeconds(10))
+               .until(() -> !uploadRepository.findVariantsPendingById(uploadId).orElseThrow());
+    }
+
+    private byte[] jpeg(int width, int height) throws IOException {
+        var out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return out.toByteArray();
+    }
+
+    private byte[] content(int size) {
+        var content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
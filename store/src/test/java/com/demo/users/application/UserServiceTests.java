@@ -1,24 +1,29 @@
 package com.demo.users.application;
 
 import com.demo.security.JwtService;
+import com.demo.security.UserVersions;
+import com.demo.shared.messaging.Outbox;
 import com.demo.users.domain.Role;
 import com.demo.users.domain.User;
 import com.demo.users.infrastructure.UserRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UserServiceTests {
@@ -27,6 +32,8 @@ public class UserServiceTests {
     private PasswordEncoder encoder;
     private AuthenticationManager authenticationManager;
     private JwtService jwtService;
+    private Outbox outbox;
+    private UserVersions userVersions;
     private UserService userService;
 
     @BeforeEach
@@ -35,8 +42,11 @@ public class UserServiceTests {
         encoder = mock(PasswordEncoder.class);
         authenticationManager = mock(AuthenticationManager.class);
         jwtService = mock(JwtService.class);
-        var rabbitTemplate = mock(RabbitTemplate.class);
-        userService = new UserService(userRepository, encoder, authenticationManager, jwtService, rabbitTemplate);
+        outbox = mock(Outbox.class);
+        userVersions = mock(UserVersions.class);
+        userService = new UserService(
+                userRepository, encoder, authenticationManager, jwtService, outbox, userVersions);
+        ReflectionTestUtils.setField(userService, "notificationQueue", "notification-queue");
     }
 
     @Test
@@ -52,6 +62,7 @@ public class UserServiceTests {
 
         // Assert
         assertThat(response.isSuccess()).isFalse();
+        verify(outbox, never()).enqueue(anyString(), anyString());
     }
 
     @Test
@@ -70,6 +81,7 @@ public class UserServiceTests {
 
         // Assert
         assertThat(response.isSuccess()).isTrue();
+        verify(outbox).enqueue("notification-queue", "{\"id\":1,\"email\":\"test@mail.com\"}");
     }
 
     @Test
@@ -148,5 +160,6 @@ public class UserServiceTests {
 
         // Assert
         assertThat(response.isSuccess()).isTrue();
+        verify(userVersions).update(user);
     }
 }
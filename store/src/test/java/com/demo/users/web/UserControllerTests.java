@@ -1,6 +1,7 @@
 package com.demo.users.web;
 
 import com.demo.shared.JsonConverter;
+import com.demo.users.application.commands.ChangePasswordCommand;
 import com.demo.users.application.commands.LoginCommand;
 import com.demo.users.application.commands.RegisterCommand;
 import com.demo.users.application.responses.UserRegistrationPayload;
@@ -12,18 +13,28 @@ import io.restassured.RestAssured;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import utils.BaseContainerTests;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.codehaus.groovy.runtime.DefaultGroovyMethods.any;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -46,6 +57,10 @@ public class UserControllerTests extends BaseContainerTests {
     private PasswordEncoder passwordEncoder;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @DynamicPropertySource
     protected static void configureProperties(DynamicPropertyRegistry registry) {
@@ -87,6 +102,38 @@ public class UserControllerTests extends BaseContainerTests {
                 .statusCode(HttpStatus.ACCEPTED.value());
     }
 
+    @Test
+    void registerShouldPublishUserRegistrationThroughOutbox() throws JsonProcessingException {
+        // Arrange
+        var command = new RegisterCommand("outbox@mail.com", "Password123!");
+        var published = new AtomicReference<Message>();
+
+        // Act
+        given()
+                .contentType("application/json")
+                .body(JsonConverter.toJson(command))
+        .when()
+                .post("/users/register")
+        .then()
+                .statusCode(HttpStatus.ACCEPTED.value());
+
+        // Assert
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            var message = rabbitTemplate.receive("notification-queue");
+            if (message != null && new String(message.getBody(), StandardCharsets.UTF_8).contains("outbox@mail.com")) {
+                published.set(message);
+            }
+            return published.get() != null;
+        });
+        var payload = JsonConverter.fromJson(
+                new String(published.get().getBody(), StandardCharsets.UTF_8), UserRegistrationPayload.class);
+        var user = userRepository.findByEmail("outbox@mail.com").orElseThrow();
+        assertThat(payload.id()).isEqualTo(user.getId());
+        assertThat(published.get().getMessageProperties().getMessageId()).startsWith("outbox-");
+        await().atMost(Duration.ofSeconds(10))
+               .until(() -> jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_messages", Long.class) == 0);
+    }
+
     @Test
     void registerShouldReturn400WhenRegisterCommandHasEmptyEmail() throws JsonProcessingException {
         var command = new RegisterCommand("", "Password123!");
@@ -142,4 +189,64 @@ public class UserControllerTests extends BaseContainerTests {
                 .log().body()
                 .statusCode(HttpStatus.UNAUTHORIZED.value());
     }
+
+    @Test
+    void changePasswordShouldRevokeTokensIssuedBefore() throws JsonProcessingException {
+        // Arrange
+        var email = "test@mail.com";
+        var password = "Password123!";
+        userRepository.save(new User(email, passwordEncoder.encode(password), Role.USER));
+        String token = given()
+                .contentType("application/json")
+                .body(JsonConverter.toJson(new LoginCommand(email, password)))
+        .when()
+                .post("/users/login")
+        .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .path("accessToken");
+        var command = JsonConverter.toJson(new ChangePasswordCommand("Password456!"));
+
+        // Act & Assert
+        given()
+                .contentType("application/json")
+                .header("Authorization", "Bearer " + token)
+                .body(command)
+        .when()
+                .post("/users/password")
+        .then()
+                .statusCode(HttpStatus.ACCEPTED.value());
+        given()
+                .contentType("application/json")
+                .header("Authorization", "Bearer " + token)
+                .body(command)
+        .when()
+                .post("/users/password")
+        .then()
+                .statusCode(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    void loginShouldRehashPasswordStoredWithWeakerStrength() throws JsonProcessingException {
+        // Arrange
+        var email = "test@mail.com";
+        var password = "Password123!";
+        var user = userRepository.save(new User(email, new BCryptPasswordEncoder(4).encode(password), Role.USER));
+        var command = new LoginCommand(email, password);
+
+        // Act
+        given()
+                .contentType("application/json")
+                .body(JsonConverter.toJson(command))
+        .when()
+                .post("/users/login")
+        .then()
+                .statusCode(HttpStatus.OK.value());
+
+        // Assert
+        var rehashed = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(rehashed.getPassword()).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches(password, rehashed.getPassword())).isTrue();
+        assertThat(rehashed.getVersion()).isEqualTo(user.getVersion());
+    }
 }
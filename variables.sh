@@ -13,4 +13,6 @@ export RABBITMQ_PORT=5673
 export RABBITMQ_USERNAME=guest
 export RABBITMQ_PASSWORD=guest
 export RABBITMQ_VHOST=/
-export RABBITMQ_QUEUE_NOTIFICATION=user-registration
\ No newline at end of file
+export RABBITMQ_QUEUE_NOTIFICATION=user-registration
+export UPLOADS_ROOT=./data/uploads
+export IMPORTS_ROOT=./data/imports
\ No newline at end of file